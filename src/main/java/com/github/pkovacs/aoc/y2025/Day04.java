@@ -2,6 +2,7 @@ package com.github.pkovacs.aoc.y2025;
 
 import java.util.List;
 
+import com.github.pkovacs.util.AbstractTable;
 import com.github.pkovacs.util.CharTable;
 
 public class Day04 extends AbstractDay {
@@ -15,16 +16,26 @@ public class Day04 extends AbstractDay {
 
     private static int countRolls(List<String> lines, boolean recursive) {
         var table = new CharTable(lines);
+        AbstractTable.CellPredicate isRoll = (x, y) -> table.get(x, y) == '@';
+        int width = table.width();
+        int[] toRemove = new int[table.size()];
         int count = 0;
         while (true) {
-            var toRemove = table.cells()
-                    .filter(p -> table.get(p) == '@')
-                    .filter(p -> table.neighbors8(p).filter(n -> table.get(n) == '@').count() < 4)
-                    .toList();
-            count += toRemove.size();
-            toRemove.forEach(p -> table.set(p, '.'));
-
-            if (!recursive || toRemove.isEmpty()) {
+            // Collect the indices of the accessible rolls first, then remove them
+            int k = 0;
+            for (int y = 0; y < table.height(); y++) {
+                for (int x = 0; x < width; x++) {
+                    if (isRoll.test(x, y) && table.countNeighbors8(x, y, isRoll) < 4) {
+                        toRemove[k++] = table.index(x, y);
+                    }
+                }
+            }
+            count += k;
+            for (int i = 0; i < k; i++) {
+                table.set(toRemove[i] % width, toRemove[i] / width, '.');
+            }
+
+            if (!recursive || k == 0) {
                 break;
             }
         }
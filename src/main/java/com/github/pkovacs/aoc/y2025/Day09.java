@@ -1,14 +1,13 @@
 package com.github.pkovacs.aoc.y2025;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import com.github.pkovacs.util.Bfs;
 import com.github.pkovacs.util.Box;
 import com.github.pkovacs.util.Graph;
 import com.github.pkovacs.util.Pos;
+import com.github.pkovacs.util.PosSet;
 
 public class Day09 extends AbstractDay {
 
@@ -42,7 +41,7 @@ public class Day09 extends AbstractDay {
                 .toList();
 
         // Collect the "loop" of tiles (line segments between the corner tiles)
-        var loop = new HashSet<Pos>();
+        var loop = new PosSet();
         for (int i = 0; i < n; i++) {
             tiles.get(i).lineTo(tiles.get((i + 1) % n)).forEach(loop::add);
         }
@@ -50,7 +49,7 @@ public class Day09 extends AbstractDay {
         // Collect the "exterior" tiles (using BFS within an appropriate bounding box)
         var boundingBox = Box.bound(tiles).extend(1);
         var graph = Graph.of(Pos::neighbors).filterNodes(p -> boundingBox.contains(p) && !loop.contains(p));
-        Set<Pos> exterior = Bfs.findPaths(graph, boundingBox.min()).keySet();
+        var exterior = new PosSet(Bfs.findPaths(graph, boundingBox.min()).keySet());
 
         // Find the rectangle of maximum original size that doesn't overlap with the set of exterior tiles
         long max = 0;
@@ -72,16 +71,16 @@ public class Day09 extends AbstractDay {
      * {@code box.stream().noneMatch(exterior::contains)}, but to make it faster, this method only checks the tiles
      * along the border of the box. (Stream API is deliberately not used to increase performance.)
      */
-    private static boolean isValidBox(Box box, Set<Pos> exterior) {
+    private static boolean isValidBox(Box box, PosSet exterior) {
         Pos min = box.min();
         Pos max = box.max();
         for (long x = min.x; x <= max.x; x++) {
-            if (exterior.contains(new Pos(x, min.y)) || exterior.contains(new Pos(x, max.y))) {
+            if (exterior.contains(x, min.y) || exterior.contains(x, max.y)) {
                 return false;
             }
         }
         for (long y = min.y + 1; y <= max.y - 1; y++) {
-            if (exterior.contains(new Pos(min.x, y)) || exterior.contains(new Pos(max.x, y))) {
+            if (exterior.contains(min.x, y) || exterior.contains(max.x, y)) {
                 return false;
             }
         }
@@ -3,6 +3,9 @@ package com.github.pkovacs.aoc.y2025;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
+
+import com.github.pkovacs.util.Dag;
 
 public class Day11 extends AbstractDay {
 
@@ -10,10 +13,13 @@ public class Day11 extends AbstractDay {
         var lines = readLines(getInputPath());
 
         var graph = buildGraph(lines);
-        var cache = new HashMap<String, PathCounts>();
+        var counts = Dag.reduceFromAny(u -> graph.getOrDefault(u, List.of()).stream(), Stream.of("you", "svr"),
+                u -> u.equals("out") ? new PathCounts(1, 0, 0, 0) : PathCounts.ZERO,
+                PathCounts::add,
+                (u, res) -> res.visit(u));
 
-        System.out.println("Part 1: " + dfs(graph, cache, "you").total());
-        System.out.println("Part 2: " + dfs(graph, cache, "svr").c11);
+        System.out.println("Part 1: " + counts.get("you").total());
+        System.out.println("Part 2: " + counts.get("svr").c11);
     }
 
     private static Map<String, List<String>> buildGraph(List<String> lines) {
@@ -25,24 +31,6 @@ public class Day11 extends AbstractDay {
         return graph;
     }
 
-    private static PathCounts dfs(Map<String, List<String>> graph, Map<String, PathCounts> cache, String node) {
-        if (node.equals("out")) {
-            return new PathCounts(1, 0, 0, 0);
-        }
-
-        var cached = cache.get(node);
-        if (cached != null) {
-            return cached;
-        }
-
-        var result = graph.get(node).stream()
-                .map(next -> dfs(graph, cache, next))
-                .map(res -> res.visit(node))
-                .reduce(PathCounts::add).orElseThrow();
-        cache.put(node, result);
-        return result;
-    }
-
     /**
      * Record to store path counts.
      * c00 represents path count without visiting any of the two designated nodes of part 2 (i.e., "dac" and "fft"),
@@ -52,6 +40,8 @@ public class Day11 extends AbstractDay {
      */
     record PathCounts(long c00, long c01, long c10, long c11) {
 
+        static final PathCounts ZERO = new PathCounts(0, 0, 0, 0);
+
         PathCounts add(PathCounts other) {
             return new PathCounts(c00 + other.c00, c01 + other.c01, c10 + other.c10, c11 + other.c11);
         }
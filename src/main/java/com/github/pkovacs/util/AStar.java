@@ -0,0 +1,399 @@
+package com.github.pkovacs.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Implements the <a href="https://en.wikipedia.org/wiki/A*_search_algorithm">A* search algorithm</a> for finding
+ * a shortest path in weighted graphs. This algorithm only supports non-negative edge weights.
+ * <p>
+ * A* is an informed version of {@link Dijkstra}'s algorithm: the nodes are processed in the order of
+ * {@code g(v) + h(v)}, where {@code g(v)} is the distance of node {@code v} from the source node, and {@code h(v)}
+ * is a heuristic estimate of the distance from {@code v} to the nearest target node. The heuristic function must be
+ * <i>admissible</i>, that is, it must never overestimate the actual distance. For example, {@link Pos#dist1(Pos)},
+ * {@link Vector#dist1(Vector)}, or {@link VectorD#dist1(VectorD)} are admissible if each step changes a single
+ * coordinate by one and costs at least one unit. With the constant zero heuristic, this algorithm is equivalent to
+ * Dijkstra's algorithm.
+ * <p>
+ * The {@link #findPath} and {@link #findPathFromAny} methods also require the heuristic to be <i>consistent</i>
+ * (monotone): {@code h(u) <= w(u, v) + h(v)} for each edge {@code (u, v)}. In this case, each node is expanded at
+ * most once, and a closed set is used to skip the edges towards the nodes already expanded. The above examples are
+ * also consistent. For heuristics that are admissible but not consistent, use the {@code findPathAdmissible*}
+ * methods, which re-expand nodes when shorter paths are found to them.
+ * <p>
+ * Among the nodes having equal {@code g(v) + h(v)} values, the ones with larger {@code g(v)} are preferred (that is,
+ * the ones that are closer to a target node according to the heuristic). This tie-breaking rule significantly
+ * reduces the number of expanded nodes in large open areas, e.g., in a grid without obstacles.
+ *
+ * @see Dijkstra
+ * @see Bfs
+ */
+public final class AStar {
+
+    private AStar() {
+    }
+
+    /**
+     * Calculates the distance (total edge weight) along one of the shortest paths from the given source node to
+     * the nearest target node identified by the given predicate. The given heuristic function must be admissible
+     * and consistent. If you are not sure if a target node is actually reachable from the source, use
+     * {@link #findPath} instead.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s).
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @return the distance (total edge weight) along a shortest path from the source node to the nearest target node.
+     * @throws java.util.NoSuchElementException if no target nodes are reachable from the source node.
+     */
+    public static <T> long dist(WeightedGraph<T> graph, T source, Predicate<? super T> targetPredicate,
+            ToLongFunction<? super T> heuristic) {
+        return findPath(graph, source, targetPredicate, heuristic).orElseThrow().dist();
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate. The given heuristic function must be admissible and consistent.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic) {
+        return findPathFromAny(graph, Stream.of(source), targetPredicate, heuristic);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate. The given heuristic function must be admissible and
+     * consistent.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     */
+    public static <T> Optional<Path<T>> findPathFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic) {
+        return findPathFromAny(graph, sources, targetPredicate, heuristic, null);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate, and collects statistics about the search. The given heuristic function must
+     * be admissible and consistent.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic, SearchStats stats) {
+        return findPathFromAny(graph, Stream.of(source), targetPredicate, heuristic, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate, and collects statistics about the search. The given heuristic
+     * function must be admissible and consistent.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     */
+    public static <T> Optional<Path<T>> findPathFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var result = run(graph, sources, targetPredicate, heuristic, true, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return result;
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate within the given budget. The given heuristic function must be admissible and
+     * consistent.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source node or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathBounded(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic, SearchBudget budget,
+            SearchStats stats) {
+        return findPathFromAnyBounded(graph, Stream.of(source), targetPredicate, heuristic, budget, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate within the given budget. The given heuristic function must be
+     * admissible and consistent.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source nodes or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic,
+            SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        return tracker.result(run(graph, sources, targetPredicate, heuristic, true, tracker.stats(), tracker));
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate. The given heuristic function must be admissible, but it is not required to
+     * be consistent, so the nodes might be expanded multiple times.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPathAdmissible(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic) {
+        return findPathAdmissibleFromAny(graph, Stream.of(source), targetPredicate, heuristic);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate. The given heuristic function must be admissible, but it is
+     * not required to be consistent, so the nodes might be expanded multiple times.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     */
+    public static <T> Optional<Path<T>> findPathAdmissibleFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic) {
+        return findPathAdmissibleFromAny(graph, sources, targetPredicate, heuristic, null);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate, and collects statistics about the search. The given heuristic function must
+     * be admissible, but it is not required to be consistent, so the nodes might be expanded multiple times.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPathAdmissible(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic, SearchStats stats) {
+        return findPathAdmissibleFromAny(graph, Stream.of(source), targetPredicate, heuristic, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate, and collects statistics about the search. The given heuristic
+     * function must be admissible, but it is not required to be consistent, so the nodes might be expanded multiple
+     * times.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     */
+    public static <T> Optional<Path<T>> findPathAdmissibleFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var result = run(graph, sources, targetPredicate, heuristic, false, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return result;
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate within the given budget. The given heuristic function must be admissible,
+     * but it is not required to be consistent, so the nodes might be expanded multiple times.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source node or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathAdmissibleBounded(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic, SearchBudget budget,
+            SearchStats stats) {
+        return findPathAdmissibleFromAnyBounded(graph, Stream.of(source), targetPredicate, heuristic, budget, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate within the given budget. The given heuristic function must be
+     * admissible, but it is not required to be consistent, so the nodes might be expanded multiple times.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param heuristic a heuristic function that provides a lower bound for the distance of each node from the
+     *         nearest target node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source nodes or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathAdmissibleFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic,
+            SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        return tracker.result(run(graph, sources, targetPredicate, heuristic, false, tracker.stats(), tracker));
+    }
+
+    private static <T> Optional<Path<T>> run(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, ToLongFunction<? super T> heuristic, boolean consistent,
+            SearchStats stats, SearchBudget.Tracker tracker) {
+        var results = new HashMap<T, Path<T>>();
+        var queue = new PriorityQueue<Entry<T>>();
+        sources.forEach(s -> {
+            var path = new Path<T>(s, 0, null);
+            results.put(s, path);
+            queue.add(new Entry<>(path, heuristic.applyAsLong(s)));
+        });
+
+        var closed = new HashSet<T>();
+        while (!queue.isEmpty()) {
+            if (stats != null) {
+                stats.queueSize(queue.size());
+            }
+            var prev = queue.poll().path;
+            var prevNode = prev.end();
+            if (consistent ? !closed.add(prevNode) : results.get(prevNode) != prev) {
+                if (stats != null) {
+                    stats.stalePop();
+                }
+                continue;
+            }
+            if (tracker != null && !tracker.expand()) {
+                break;
+            }
+            if (stats != null) {
+                stats.nodeExpanded();
+            }
+            if (targetPredicate.test(prevNode)) {
+                return Optional.of(prev);
+            }
+
+            graph.forEachEdge(prevNode, (node, weight) -> {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                if (consistent && closed.contains(node)) {
+                    return;
+                }
+                var current = results.get(node);
+                long dist = prev.dist() + weight;
+                if (current == null || dist < current.dist()) {
+                    var path = new Path<>(node, dist, prev);
+                    results.put(node, path);
+                    queue.add(new Entry<>(path, dist + heuristic.applyAsLong(node)));
+                }
+            });
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Queue entry: a path and its estimated total length {@code f = g + h}. Ordered by {@code f}, ties are broken
+     * in favor of larger {@code g} values.
+     */
+    private record Entry<T>(Path<T> path, long f) implements Comparable<Entry<T>> {
+
+        @Override
+        public int compareTo(Entry<T> other) {
+            return f != other.f ? Long.compare(f, other.f) : Long.compare(other.path.dist(), path.dist());
+        }
+
+    }
+
+}
@@ -1,9 +1,14 @@
 package com.github.pkovacs.util;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -18,7 +23,15 @@ import java.util.stream.Stream;
  */
 public abstract sealed class AbstractTable<V> permits IntTable, CharTable, Table {
 
+    // The coordinate changes of the neighbors in lexicographical order
+    private static final int[] DX = {-1, 0, 0, 1};
+    private static final int[] DY = {0, -1, 1, 0};
+    private static final int[] DX8 = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DY8 = {-1, 0, 1, -1, 1, -1, 0, 1};
+
     private List<Pos> cells;
+    private int[] neighborOffsets;
+    private int[] neighbor8Offsets;
 
     /**
      * Returns the width of this table (the number of columns).
@@ -212,6 +225,189 @@ public abstract sealed class AbstractTable<V> permits IntTable, CharTable, Table
         return cell.neighbors8AndSelf().filter(this::containsCell);
     }
 
+    /**
+     * Performs the given action for each main (side-adjacent) neighbor of the given cell within this table in
+     * lexicographical order. This method is equivalent to {@code neighbors(pos).forEach(action)}, but it does not
+     * construct a stream pipeline.
+     */
+    public final void forEachNeighbor(Pos pos, Consumer<? super Pos> action) {
+        long x = pos.x;
+        long y = pos.y;
+        acceptIfContained(x - 1, y, action);
+        acceptIfContained(x, y - 1, action);
+        acceptIfContained(x, y + 1, action);
+        acceptIfContained(x + 1, y, action);
+    }
+
+    /**
+     * Performs the given action for each "extended" neighbor of the given cell within this table (also including
+     * the diagonal ones) in lexicographical order. This method is equivalent to
+     * {@code neighbors8(pos).forEach(action)}, but it does not construct a stream pipeline.
+     */
+    public final void forEachNeighbor8(Pos pos, Consumer<? super Pos> action) {
+        long x = pos.x;
+        long y = pos.y;
+        acceptIfContained(x - 1, y - 1, action);
+        acceptIfContained(x - 1, y, action);
+        acceptIfContained(x - 1, y + 1, action);
+        acceptIfContained(x, y - 1, action);
+        acceptIfContained(x, y + 1, action);
+        acceptIfContained(x + 1, y - 1, action);
+        acceptIfContained(x + 1, y, action);
+        acceptIfContained(x + 1, y + 1, action);
+    }
+
+    private void acceptIfContained(long x, long y, Consumer<? super Pos> action) {
+        if (containsCell(x, y)) {
+            action.accept(new Pos(x, y));
+        }
+    }
+
+    /**
+     * Performs the given action for each main (side-adjacent) neighbor of the given cell within this table in
+     * lexicographical order. This method is equivalent to {@link #forEachNeighbor(Pos, Consumer)}, but it does not
+     * create any objects.
+     */
+    public final void forEachNeighbor(int x, int y, CellConsumer action) {
+        forEachNeighbor(x, y, DX, DY, action);
+    }
+
+    /**
+     * Performs the given action for each "extended" neighbor of the given cell within this table (also including
+     * the diagonal ones) in lexicographical order. This method is equivalent to
+     * {@link #forEachNeighbor8(Pos, Consumer)}, but it does not create any objects.
+     */
+    public final void forEachNeighbor8(int x, int y, CellConsumer action) {
+        forEachNeighbor(x, y, DX8, DY8, action);
+    }
+
+    private void forEachNeighbor(int x, int y, int[] dx, int[] dy, CellConsumer action) {
+        for (int k = 0; k < dx.length; k++) {
+            if (containsCell(x + dx[k], y + dy[k])) {
+                action.accept(x + dx[k], y + dy[k]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of main (side-adjacent) neighbors of the given cell within this table that satisfy the
+     * given predicate. This method does not create any objects.
+     */
+    public final int countNeighbors(int x, int y, CellPredicate predicate) {
+        return countNeighbors(x, y, DX, DY, predicate);
+    }
+
+    /**
+     * Returns the number of "extended" neighbors of the given cell within this table (also including the diagonal
+     * ones) that satisfy the given predicate. This method does not create any objects.
+     */
+    public final int countNeighbors8(int x, int y, CellPredicate predicate) {
+        return countNeighbors(x, y, DX8, DY8, predicate);
+    }
+
+    private int countNeighbors(int x, int y, int[] dx, int[] dy, CellPredicate predicate) {
+        int count = 0;
+        for (int k = 0; k < dx.length; k++) {
+            if (containsCell(x + dx[k], y + dy[k]) && predicate.test(x + dx[k], y + dy[k])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the row-major index of the given cell: {@code y * width() + x}.
+     */
+    public final int index(int x, int y) {
+        return y * width() + x;
+    }
+
+    /**
+     * Returns the differences between the {@linkplain #index(int, int) indices} of the main (side-adjacent)
+     * neighbors of a cell and the index of the cell itself in lexicographical order of the neighbors:
+     * {@code [-1, -width, width, 1]}. Adding them to the index of a cell that is not on the border of the table
+     * gives the indices of its neighbors. The offsets depend only on the width of the table; a new copy of the
+     * cached array is returned, so this method should be called outside the innermost loops.
+     */
+    public final int[] neighborOffsets() {
+        return cachedNeighborOffsets().clone();
+    }
+
+    /**
+     * Returns the differences between the {@linkplain #index(int, int) indices} of the "extended" neighbors of
+     * a cell (also including the diagonal ones) and the index of the cell itself in lexicographical order of the
+     * neighbors. See {@link #neighborOffsets()} for more details.
+     */
+    public final int[] neighbor8Offsets() {
+        return cachedNeighbor8Offsets().clone();
+    }
+
+    /**
+     * Performs the given action for the {@linkplain #index(int, int) index} of each main (side-adjacent) neighbor
+     * of the cell with the given index in lexicographical order of the neighbors. The precomputed
+     * {@linkplain #neighborOffsets() offsets} are used directly if the cell is not on the border of the table.
+     * This method does not create any objects.
+     *
+     * @throws IndexOutOfBoundsException if the table does not contain a cell with the given index
+     */
+    public final void forEachNeighborIndex(int index, IntConsumer action) {
+        forEachNeighborIndex(index, DX, DY, cachedNeighborOffsets(), action);
+    }
+
+    /**
+     * Performs the given action for the {@linkplain #index(int, int) index} of each "extended" neighbor of the cell
+     * with the given index (also including the diagonal ones) in lexicographical order of the neighbors. The
+     * precomputed {@linkplain #neighbor8Offsets() offsets} are used directly if the cell is not on the border of
+     * the table. This method does not create any objects.
+     *
+     * @throws IndexOutOfBoundsException if the table does not contain a cell with the given index
+     */
+    public final void forEachNeighbor8Index(int index, IntConsumer action) {
+        forEachNeighborIndex(index, DX8, DY8, cachedNeighbor8Offsets(), action);
+    }
+
+    private void forEachNeighborIndex(int index, int[] dx, int[] dy, int[] offsets, IntConsumer action) {
+        Objects.checkIndex(index, size());
+        int width = width();
+        int x = index % width;
+        int y = index / width;
+        if (x > 0 && x < width - 1 && y > 0 && y < height() - 1) {
+            for (int offset : offsets) {
+                action.accept(index + offset);
+            }
+        } else {
+            for (int k = 0; k < offsets.length; k++) {
+                if (containsCell(x + dx[k], y + dy[k])) {
+                    action.accept(index + offsets[k]);
+                }
+            }
+        }
+    }
+
+    private int[] cachedNeighborOffsets() {
+        if (neighborOffsets == null) {
+            // Lazy load: calculate the offsets for the width of this table
+            neighborOffsets = offsets(DX, DY);
+        }
+        return neighborOffsets;
+    }
+
+    private int[] cachedNeighbor8Offsets() {
+        if (neighbor8Offsets == null) {
+            // Lazy load: calculate the offsets for the width of this table
+            neighbor8Offsets = offsets(DX8, DY8);
+        }
+        return neighbor8Offsets;
+    }
+
+    private int[] offsets(int[] dx, int[] dy) {
+        int[] offsets = new int[dx.length];
+        for (int k = 0; k < dx.length; k++) {
+            offsets[k] = dy[k] * width() + dx[k];
+        }
+        return offsets;
+    }
+
     /**
      * Returns an ordered stream of cells that constitutes a "ray" moving away from the given cell in the given
      * direction within this table. The first element of the stream (if any) is the corresponding neighbor of
@@ -236,11 +432,39 @@ public abstract sealed class AbstractTable<V> permits IntTable, CharTable, Table
         return pos.ray(other).takeWhile(this::containsCell);
     }
 
+    /**
+     * Moves away from the given cell in the given direction (like {@link #ray(Pos, Dir)}) while the subsequent
+     * cells are contained in this table and the given action returns true for them. This method does not create
+     * any objects.
+     *
+     * @return the number of cells for which the action returned true
+     */
+    public final int ray(int x, int y, Dir dir, CellPredicate action) {
+        return ray(x, y, dir.toDir8(), action);
+    }
+
+    /**
+     * Moves away from the given cell in the given direction (like {@link #ray(Pos, Pos)}) while the subsequent
+     * cells are contained in this table and the given action returns true for them. This method does not create
+     * any objects.
+     *
+     * @return the number of cells for which the action returned true
+     */
+    public final int ray(int x, int y, Dir8 dir, CellPredicate action) {
+        int dx = Pos.dx(dir);
+        int dy = Pos.dy(dir);
+        int count = 0;
+        for (int cx = x + dx, cy = y + dy; containsCell(cx, cy) && action.test(cx, cy); cx += dx, cy += dy) {
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Returns the {@linkplain #neighbors(Pos) neighbor} graph of the cells in this table.
      */
     public final Graph<Pos> graph() {
-        return Graph.of(this::neighbors);
+        return Graph.<Pos>of(this::neighbors, this::forEachNeighbor);
     }
 
     /**
@@ -248,14 +472,14 @@ public abstract sealed class AbstractTable<V> permits IntTable, CharTable, Table
      * The cells are filtered by the given predicate applied to their associated values.
      */
     public final Graph<Pos> graph(Predicate<V> valueFilter) {
-        return Graph.of(this::neighbors).filterNodes(p -> valueFilter.test(get0((int) p.x, (int) p.y)));
+        return graph().filterNodes(p -> valueFilter.test(get0((int) p.x, (int) p.y)));
     }
 
     /**
      * Returns the {@linkplain #neighbors8(Pos) "extended" neighbor} graph of the cells in this table.
      */
     public final Graph<Pos> graph8() {
-        return Graph.of(this::neighbors8);
+        return Graph.<Pos>of(this::neighbors8, this::forEachNeighbor8);
     }
 
     /**
@@ -263,7 +487,74 @@ public abstract sealed class AbstractTable<V> permits IntTable, CharTable, Table
      * The cells are filtered by the given predicate applied to their associated values.
      */
     public final Graph<Pos> graph8(Predicate<V> valueFilter) {
-        return Graph.of(this::neighbors8).filterNodes(p -> valueFilter.test(get0((int) p.x, (int) p.y)));
+        return graph8().filterNodes(p -> valueFilter.test(get0((int) p.x, (int) p.y)));
+    }
+
+    /**
+     * Runs a BFS (breadth-first search) on the {@linkplain #neighbors(Pos) neighbor} graph of the cells in this
+     * table starting from the given source cell. This method is equivalent to {@code Bfs.findPaths(graph(), source)},
+     * but it is much faster for large tables, and the result requires much less memory.
+     *
+     * @throws IllegalArgumentException if the table does not contain the source cell
+     */
+    public final CellDistances findDistances(Pos source) {
+        return findDistancesFromAny(List.of(source), v -> true);
+    }
+
+    /**
+     * Runs a BFS (breadth-first search) on a subgraph of the {@linkplain #neighbors(Pos) neighbor} graph of the
+     * cells in this table starting from the given source cell. The cells are filtered by the given predicate
+     * applied to their associated values, but the source cell is always included. This method is equivalent to
+     * {@code Bfs.findPaths(graph(valueFilter), source)}, but it is much faster for large tables, and the result
+     * requires much less memory.
+     *
+     * @throws IllegalArgumentException if the table does not contain the source cell
+     */
+    public final CellDistances findDistances(Pos source, Predicate<V> valueFilter) {
+        return findDistancesFromAny(List.of(source), valueFilter);
+    }
+
+    /**
+     * Runs a BFS (breadth-first search) on a subgraph of the {@linkplain #neighbors(Pos) neighbor} graph of the
+     * cells in this table starting from the given source cells. The cells are filtered by the given predicate
+     * applied to their associated values, but the source cells are always included. This method is equivalent to
+     * {@code Bfs.findPathsFromAny(graph(valueFilter), sources.stream())}, but it is much faster for large tables,
+     * and the result requires much less memory.
+     *
+     * @throws IllegalArgumentException if the table does not contain a source cell
+     */
+    public final CellDistances findDistancesFromAny(Collection<Pos> sources, Predicate<V> valueFilter) {
+        for (var s : sources) {
+            if (!containsCell(s)) {
+                throw new IllegalArgumentException("The table does not contain cell " + s + ".");
+            }
+        }
+        int width = width();
+        return CellDistances.run(width, height(), sources, i -> valueFilter.test(get0(i % width, i / width)));
+    }
+
+    /**
+     * Creates a {@link DynamicCellDistances} object that maintains the distances of the cells in this table from
+     * the given source cell on the {@linkplain #neighbors(Pos) neighbor} graph while the values of the cells change.
+     * Entering a cell costs the value returned by the given function for its associated value, which must be
+     * positive, or the cell cannot be entered if the function returns a negative value. The source cell is always
+     * included. After changing the value of a cell, {@link DynamicCellDistances#update(Pos)} has to be called.
+     */
+    public final DynamicCellDistances<V> dynamicDistances(Pos source, ToLongFunction<? super V> costFunction) {
+        return dynamicDistancesFromAny(List.of(source), costFunction);
+    }
+
+    /**
+     * Creates a {@link DynamicCellDistances} object that maintains the distances of the cells in this table from
+     * the nearest source cell on the {@linkplain #neighbors(Pos) neighbor} graph while the values of the cells
+     * change. Entering a cell costs the value returned by the given function for its associated value, which must
+     * be positive, or the cell cannot be entered if the function returns a negative value. The source cells are
+     * always included. After changing the value of a cell, {@link DynamicCellDistances#update(Pos)} has to be
+     * called.
+     */
+    public final DynamicCellDistances<V> dynamicDistancesFromAny(Collection<Pos> sources,
+            ToLongFunction<? super V> costFunction) {
+        return new DynamicCellDistances<>(this, sources, costFunction);
     }
 
     /**
@@ -361,4 +652,24 @@ public abstract sealed class AbstractTable<V> permits IntTable, CharTable, Table
         return newInstance(w, h, (x, y) -> containsCell(x - dx, y - dy) ? get0(x - dx, y - dy) : fillValue);
     }
 
+    /**
+     * An action to be performed for the coordinates of a cell.
+     */
+    @FunctionalInterface
+    public interface CellConsumer {
+
+        void accept(int x, int y);
+
+    }
+
+    /**
+     * A predicate of the coordinates of a cell.
+     */
+    @FunctionalInterface
+    public interface CellPredicate {
+
+        boolean test(int x, int y);
+
+    }
+
 }
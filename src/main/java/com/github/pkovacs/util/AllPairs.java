@@ -0,0 +1,177 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates the pairwise distances (total edge weight along the shortest paths) between selected nodes of a graph.
+ * This algorithm only supports non-negative edge weights.
+ * <p>
+ * The graph is {@linkplain WeightedGraph#compile(Object) compiled} first, and one of the following strategies is
+ * chosen based on the number of selected nodes ({@code k}) and the size of the compiled graph ({@code n} nodes and
+ * {@code m} edges).
+ * <ul>
+ * <li>
+ *     <b>Repeated single-source searches:</b> {@link Dijkstra} (or {@link Bfs} if all edge weights are 1) is run
+ *     from each selected node in parallel using the common {@link ForkJoinPool}. The running time is
+ *     {@code O(k * (n + m) * log(n))}, so this is preferred for sparse graphs and few selected nodes.
+ * </li>
+ * <li>
+ *     <b>Floyd-Warshall algorithm:</b> the distances between all nodes are calculated on an {@code n * n} matrix
+ *     stored in a single {@code long[]} array. The matrix is processed in square tiles that fit into the CPU cache,
+ *     and in each round, the independent tiles are processed in parallel. The running time is {@code O(n^3)}, but
+ *     the inner loop is very simple, so this is preferred for small, dense graphs.
+ * </li>
+ * </ul>
+ *
+ * @see DistanceMatrix
+ */
+public final class AllPairs {
+
+    /** The maximum number of nodes for the Floyd-Warshall algorithm (the matrix takes 32 MB). */
+    private static final int MAX_FLOYD_WARSHALL_SIZE = 2048;
+
+    /** The maximum number of elements of a distance matrix (the maximum length of a {@code long[]} array). */
+    private static final long MAX_MATRIX_SIZE = Integer.MAX_VALUE - 8;
+
+    /** The width of the square tiles of the Floyd-Warshall matrix (a 64 * 64 tile takes 32 KB). */
+    private static final int TILE_SIZE = 64;
+
+    /** The approximate ratio of the cost of a heap operation and a step of the Floyd-Warshall algorithm. */
+    private static final int COST_RATIO = 8;
+
+    /** Infinite distance in the Floyd-Warshall matrix. The sum of two such values does not overflow. */
+    private static final long INFINITY = Long.MAX_VALUE / 2;
+
+    private AllPairs() {
+    }
+
+    /**
+     * Calculates the pairwise distances (total edge weight along the shortest paths) between the given nodes.
+     * The shortest paths might also contain other nodes. The part of the graph that is reachable from the given
+     * nodes is {@linkplain WeightedGraph#compileFromAny compiled} first.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param nodes the nodes (duplicates are ignored).
+     * @return the {@link DistanceMatrix} of the given nodes.
+     */
+    public static <T> DistanceMatrix<T> findDistances(WeightedGraph<T> graph, Collection<? extends T> nodes) {
+        return findDistances(graph.compileFromAny(nodes.stream()), nodes);
+    }
+
+    /**
+     * Calculates the pairwise distances (total edge weight along the shortest paths) between the given nodes of
+     * a {@link CompiledGraph}. The shortest paths might also contain other nodes.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the given nodes.
+     * @param nodes the nodes (duplicates are ignored).
+     * @return the {@link DistanceMatrix} of the given nodes.
+     * @throws IllegalArgumentException if the graph does not contain one of the given nodes, the graph has
+     *         a negative edge weight, or the distance matrix of the given nodes would not fit into a single array
+     *         (more than about 46,000 distinct nodes)
+     */
+    public static <T> DistanceMatrix<T> findDistances(CompiledGraph<T> graph, Collection<? extends T> nodes) {
+        long[] weights = graph.weights();
+        if (Arrays.stream(weights).anyMatch(w -> w < 0)) {
+            throw new IllegalArgumentException("Negative edge weight.");
+        }
+
+        // CompiledGraph.indexOf() throws IllegalArgumentException for unknown nodes, so no id is -1
+        var index = new NodeIndex<T>();
+        nodes.forEach(index::getOrAdd);
+        int[] ids = IntStream.range(0, index.size()).map(i -> graph.indexOf(index.get(i))).toArray();
+
+        long n = graph.size();
+        long k = ids.length;
+        if (k * k > MAX_MATRIX_SIZE) {
+            throw new IllegalArgumentException("Too many nodes for a distance matrix: " + k + ".");
+        }
+        boolean unweighted = Arrays.stream(weights).allMatch(w -> w == 1);
+        long searchCost = k * (n + graph.edgeCount()) * (unweighted ? 1 : 64 - Long.numberOfLeadingZeros(n));
+        long[] dist = n <= MAX_FLOYD_WARSHALL_SIZE && n * n * n < COST_RATIO * searchCost
+                ? floydWarshall(graph, ids)
+                : repeatedSearch(graph, ids, unweighted);
+        return new DistanceMatrix<>(index, dist);
+    }
+
+    private static <T> long[] repeatedSearch(CompiledGraph<T> graph, int[] ids, boolean unweighted) {
+        int k = ids.length;
+        long[] result = new long[k * k];
+        IntStream.range(0, k).parallel().forEach(i -> {
+            var source = graph.node(ids[i]);
+            long[] dist = unweighted ? Bfs.findDistances(graph, source) : Dijkstra.findDistances(graph, source);
+            for (int j = 0; j < k; j++) {
+                result[i * k + j] = dist[ids[j]];
+            }
+        });
+        return result;
+    }
+
+    private static long[] floydWarshall(CompiledGraph<?> graph, int[] ids) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long[] weights = graph.weights();
+
+        long[] d = new long[n * n]; // n <= MAX_FLOYD_WARSHALL_SIZE, so this does not overflow
+        Arrays.fill(d, INFINITY);
+        for (int u = 0; u < n; u++) {
+            d[u * n + u] = 0;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int i = u * n + targets[e];
+                d[i] = Math.min(d[i], weights[e]);
+            }
+        }
+
+        // Blocked Floyd-Warshall: in each round, the diagonal tile is processed first, then the other tiles of its
+        // row and column (in parallel), and finally all remaining tiles (in parallel)
+        int t = (n + TILE_SIZE - 1) / TILE_SIZE;
+        for (int kt = 0; kt < t; kt++) {
+            int r = kt;
+            relaxTile(d, n, r, r, r);
+            IntStream.range(0, t).filter(i -> i != r).parallel().forEach(i -> {
+                relaxTile(d, n, r, i, r);
+                relaxTile(d, n, i, r, r);
+            });
+            IntStream.range(0, t * t).parallel()
+                    .filter(x -> x / t != r && x % t != r)
+                    .forEach(x -> relaxTile(d, n, x / t, x % t, r));
+        }
+
+        int k = ids.length;
+        long[] result = new long[k * k];
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                long dist = d[ids[i] * n + ids[j]];
+                result[i * k + j] = dist < INFINITY ? dist : CompiledGraph.UNREACHABLE;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Relaxes the distances in the tile {@code (it, jt)} of the matrix via the intermediate nodes of tile {@code kt}.
+     */
+    private static void relaxTile(long[] d, int n, int it, int jt, int kt) {
+        int iEnd = Math.min((it + 1) * TILE_SIZE, n);
+        int jStart = jt * TILE_SIZE;
+        int jEnd = Math.min(jStart + TILE_SIZE, n);
+        int kEnd = Math.min((kt + 1) * TILE_SIZE, n);
+        for (int k = kt * TILE_SIZE; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = it * TILE_SIZE; i < iEnd; i++) {
+                int iRow = i * n;
+                long dik = d[iRow + k];
+                if (dik == INFINITY) {
+                    continue;
+                }
+                for (int j = jStart; j < jEnd; j++) {
+                    d[iRow + j] = Math.min(d[iRow + j], dik + d[kRow + j]);
+                }
+            }
+        }
+    }
+
+}
@@ -45,7 +45,26 @@ public final class Backtracking {
                     String.format("The value range is smaller than the domain: %d < %d.", m, n));
         }
 
-        return run(n, m, true, predicate, Integer.MAX_VALUE);
+        return run(n, m, true, predicate, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Finds all arrays of distinct values that are feasible solutions of the specified problem within the given
+     * budget, just like {@link #findAllDistinct(int, int, BacktrackingPredicate)}. Each step of the algorithm
+     * (assigning the next value to a position or stepping back) counts as an expanded node.
+     *
+     * @return a {@link SearchResult} containing the list of all arrays of distinct values that are feasible
+     *         solutions or the solutions found so far if the search is stopped
+     */
+    public static SearchResult<List<int[]>> findAllDistinct(int n, int m, BacktrackingPredicate predicate,
+            SearchBudget budget) {
+        if (m < n) {
+            throw new IllegalArgumentException(
+                    String.format("The value range is smaller than the domain: %d < %d.", m, n));
+        }
+
+        var tracker = budget.start();
+        return tracker.result(run(n, m, true, predicate, Integer.MAX_VALUE, tracker));
     }
 
     /**
@@ -57,7 +76,21 @@ public final class Backtracking {
      * @return the list of all feasible solutions
      */
     public static List<int[]> findAll(int n, int m, BacktrackingPredicate predicate) {
-        return run(n, m, false, predicate, Integer.MAX_VALUE);
+        return run(n, m, false, predicate, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Finds all feasible solutions of the specified problem within the given budget, just like
+     * {@link #findAll(int, int, BacktrackingPredicate)}. Each step of the algorithm (assigning the next value to
+     * a position or stepping back) counts as an expanded node.
+     *
+     * @return a {@link SearchResult} containing the list of all feasible solutions or the solutions found so far
+     *         if the search is stopped
+     */
+    public static SearchResult<List<int[]>> findAll(int n, int m, BacktrackingPredicate predicate,
+            SearchBudget budget) {
+        var tracker = budget.start();
+        return tracker.result(run(n, m, false, predicate, Integer.MAX_VALUE, tracker));
     }
 
     /**
@@ -81,7 +114,26 @@ public final class Backtracking {
                     String.format("The value range is smaller than the domain: %d < %d.", m, n));
         }
 
-        return run(n, m, true, predicate, 1).stream().findFirst();
+        return run(n, m, true, predicate, 1, null).stream().findFirst();
+    }
+
+    /**
+     * Finds the first array of distinct values that is a feasible solution of the specified problem within the
+     * given budget, just like {@link #findFirstDistinct(int, int, BacktrackingPredicate)}. Each step of the
+     * algorithm (assigning the next value to a position or stepping back) counts as an expanded node.
+     *
+     * @return a {@link SearchResult} containing an array of distinct values that is a feasible solution or an
+     *         empty optional if no such solution is found (within the budget)
+     */
+    public static SearchResult<Optional<int[]>> findFirstDistinct(int n, int m, BacktrackingPredicate predicate,
+            SearchBudget budget) {
+        if (m < n) {
+            throw new IllegalArgumentException(
+                    String.format("The value range is smaller than the domain: %d < %d.", m, n));
+        }
+
+        var tracker = budget.start();
+        return tracker.result(run(n, m, true, predicate, 1, tracker).stream().findFirst());
     }
 
     /**
@@ -93,10 +145,25 @@ public final class Backtracking {
      * @return a feasible solution or an empty optional if no solution is found
      */
     public static Optional<int[]> findFirst(int n, int m, BacktrackingPredicate predicate) {
-        return run(n, m, false, predicate, 1).stream().findFirst();
+        return run(n, m, false, predicate, 1, null).stream().findFirst();
+    }
+
+    /**
+     * Finds the first feasible solution of the specified problem within the given budget, just like
+     * {@link #findFirst(int, int, BacktrackingPredicate)}. Each step of the algorithm (assigning the next value to
+     * a position or stepping back) counts as an expanded node.
+     *
+     * @return a {@link SearchResult} containing a feasible solution or an empty optional if no solution is found
+     *         (within the budget)
+     */
+    public static SearchResult<Optional<int[]>> findFirst(int n, int m, BacktrackingPredicate predicate,
+            SearchBudget budget) {
+        var tracker = budget.start();
+        return tracker.result(run(n, m, false, predicate, 1, tracker).stream().findFirst());
     }
 
-    private static List<int[]> run(int n, int m, boolean distinct, BacktrackingPredicate predicate, int limit) {
+    private static List<int[]> run(int n, int m, boolean distinct, BacktrackingPredicate predicate, int limit,
+            SearchBudget.Tracker tracker) {
         var result = new ArrayList<int[]>();
 
         var available = new BitSet();
@@ -105,6 +172,10 @@ public final class Backtracking {
         int[] solution = new int[n];
         Arrays.fill(solution, -1);
         for (int k = 0; k >= 0; ) {
+            if (tracker != null && !tracker.expand()) {
+                break;
+            }
+
             // Find next valid value for the k-th position
             do {
                 solution[k] = distinct ? available.nextSetBit(solution[k] + 1) : solution[k] + 1;
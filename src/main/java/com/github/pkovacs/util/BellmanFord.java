@@ -1,18 +1,34 @@
 package com.github.pkovacs.util;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
  * Implements an efficient version of the Bellman-Ford algorithm, which is known as the
  * <a href="https://en.wikipedia.org/wiki/Shortest_Path_Faster_Algorithm">SPFA algorithm</a> for finding shortest
  * paths in weighted graphs. This algorithm is significantly slower than {@link Dijkstra}, but it also supports
- * negative edge weights. However, the graph must not contain a <i>directed cycle of negative total weight</i>.
- * The current implementation does not terminate if such a cycle is reachable from the source node(s).
+ * negative edge weights. However, the graph must not contain a <i>directed cycle of negative total weight</i>
+ * that is reachable from the source node(s). Such a cycle is detected by the algorithm: if the shortest path found
+ * to a node has at least as many edges as the number of nodes discovered so far, then it contains a negative cycle.
+ * {@link #findNegativeCycle} can be used to obtain such a cycle.
  * <p>
  * The input is a directed or undirected {@link WeightedGraph} and one or more source nodes.
+ * <p>
+ * Each node is contained in the queue at most once. The order of processing the nodes is improved by two common
+ * heuristics: <i>Small Label First</i> (a node is added to the front of the queue if its distance is smaller than
+ * the distance of the current front node) and <i>Large Label Last</i> (the front node is moved to the back of the
+ * queue while its distance is larger than the average distance of the queued nodes).
+ * <p>
+ * {@link #findPaths(WeightedGraph, Object, int)} solves a variant of the problem: it finds shortest paths using
+ * at most a certain number of edges. It terminates even if there are reachable negative cycles.
  *
  * @see Dijkstra
  */
@@ -27,11 +43,28 @@ public final class BellmanFord {
      * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
      * @param source the source node.
      * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     * @throws IllegalArgumentException if the graph contains a directed cycle of negative total weight that is
+     *         reachable from the source node.
      */
     public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source) {
         return findPathsFromAny(graph, Stream.of(source));
     }
 
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node,
+     * and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     * @throws IllegalArgumentException if the graph contains a directed cycle of negative total weight that is
+     *         reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source, SearchStats stats) {
+        return findPathsFromAny(graph, Stream.of(source), stats);
+    }
+
     /**
      * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
      * source nodes.
@@ -39,32 +72,476 @@ public final class BellmanFord {
      * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
      * @param sources the source nodes.
      * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
+     * @throws IllegalArgumentException if the graph contains a directed cycle of negative total weight that is
+     *         reachable from the source nodes.
      */
     public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources) {
+        return findPathsFromAny(graph, sources, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
+     * source nodes, and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
+     * @throws IllegalArgumentException if the graph contains a directed cycle of negative total weight that is
+     *         reachable from the source nodes.
+     */
+    public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var results = findPaths(graph, sources, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return results;
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source node. If the search is stopped, then the map contains the nodes found so
+     *         far, and the paths are not necessarily shortest paths.
+     * @throws IllegalArgumentException if a directed cycle of negative total weight that is reachable from the
+     *         source node is found before the search is stopped.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsBounded(WeightedGraph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        return findPathsFromAnyBounded(graph, Stream.of(source), budget, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
+     * source nodes within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source nodes. If the search is stopped, then the map contains the nodes found so
+     *         far, and the paths are not necessarily shortest paths.
+     * @throws IllegalArgumentException if a directed cycle of negative total weight that is reachable from the
+     *         source nodes is found before the search is stopped.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        return tracker.result(findPaths(graph, sources, tracker.stats(), tracker));
+    }
+
+    private static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, Stream<? extends T> sources,
+            SearchStats stats, SearchBudget.Tracker tracker) {
+        var labels = new HashMap<T, Label<T>>();
+        if (run(graph, sources, labels, stats, tracker) != null) {
+            throw new IllegalArgumentException(
+                    "The graph contains a negative cycle reachable from the source node(s).");
+        }
+
+        var results = new HashMap<T, Path<T>>();
+        labels.forEach((node, label) -> results.put(node, label.path));
+        return results;
+    }
+
+    /**
+     * Finds a directed cycle of negative total weight that is reachable from the given source node.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @return the list of nodes along a negative cycle (each node is followed by its successor along the cycle, and
+     *         the last node is followed by the first one) or an empty optional if no negative cycle is reachable
+     *         from the source node.
+     */
+    public static <T> Optional<List<T>> findNegativeCycle(WeightedGraph<T> graph, T source) {
+        return findNegativeCycleFromAny(graph, Stream.of(source));
+    }
+
+    /**
+     * Finds a directed cycle of negative total weight that is reachable from any of the given source nodes.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @return the list of nodes along a negative cycle (each node is followed by its successor along the cycle, and
+     *         the last node is followed by the first one) or an empty optional if no negative cycle is reachable
+     *         from the source nodes.
+     */
+    public static <T> Optional<List<T>> findNegativeCycleFromAny(WeightedGraph<T> graph,
+            Stream<? extends T> sources) {
+        var label = run(graph, sources, new HashMap<>(), null, null);
+        if (label == null) {
+            return Optional.empty();
+        }
+
+        // The path to this node repeats a node. The section between the last two occurrences of the first repeated
+        // node (when going backwards) is a simple cycle, and its total weight must be negative, because later paths
+        // to the same node always have smaller distances.
+        var positions = new HashMap<T, Integer>();
+        var nodes = new ArrayList<T>();
+        for (var p = label.path; p != null; p = p.prev()) {
+            var prevPosition = positions.put(p.end(), nodes.size());
+            if (prevPosition != null) {
+                var cycle = new ArrayList<>(nodes.subList(prevPosition, nodes.size()));
+                Collections.reverse(cycle);
+                return Optional.of(cycle);
+            }
+            nodes.add(p.end());
+        }
+        throw new IllegalStateException("No repeated node along the path.");
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) that consist of at most {@code maxEdges} edges to all
+     * nodes reachable from the given source node along such paths. This method terminates even if the graph contains
+     * negative cycles.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param maxEdges the maximum number of edges along the paths.
+     * @return a map that associates a shortest {@link Path} having at most {@code maxEdges} edges with each node
+     *         reachable from the source node along such paths.
+     */
+    public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source, int maxEdges) {
+        return findPathsFromAny(graph, Stream.of(source), maxEdges);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) that consist of at most {@code maxEdges} edges to all
+     * nodes reachable from the given source node along such paths, and collects statistics about the search. This
+     * method terminates even if the graph contains negative cycles.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param maxEdges the maximum number of edges along the paths.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} having at most {@code maxEdges} edges with each node
+     *         reachable from the source node along such paths.
+     */
+    public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source, int maxEdges, SearchStats stats) {
+        return findPathsFromAny(graph, Stream.of(source), maxEdges, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) that consist of at most {@code maxEdges} edges to all
+     * nodes reachable from any of the given source nodes along such paths. This method terminates even if the graph
+     * contains negative cycles.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param maxEdges the maximum number of edges along the paths.
+     * @return a map that associates a shortest {@link Path} having at most {@code maxEdges} edges with each node
+     *         reachable from the source nodes along such paths.
+     */
+    public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            int maxEdges) {
+        return findPathsFromAny(graph, sources, maxEdges, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) that consist of at most {@code maxEdges} edges to all
+     * nodes reachable from any of the given source nodes along such paths, and collects statistics about the search.
+     * This method terminates even if the graph contains negative cycles.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param maxEdges the maximum number of edges along the paths.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} having at most {@code maxEdges} edges with each node
+     *         reachable from the source nodes along such paths.
+     */
+    public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            int maxEdges, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
         var results = new HashMap<T, Path<T>>();
+        sources.forEach(s -> results.put(s, new Path<>(s, 0, null)));
+
+        // Round k relaxes the edges of the nodes changed in round k - 1 based on the distances at the start of the
+        // round, so the paths found in round k have at most k edges
+        Collection<Path<T>> changed = new ArrayList<>(results.values());
+        for (int k = 0; k < maxEdges && !changed.isEmpty(); k++) {
+            var next = new HashMap<T, Path<T>>();
+            if (stats != null) {
+                stats.queueSize(changed.size());
+            }
+            for (var prev : changed) {
+                if (stats != null) {
+                    stats.nodeExpanded();
+                }
+                graph.forEachEdge(prev.end(), (node, weight) -> {
+                    if (stats != null) {
+                        stats.edgeScanned();
+                    }
+                    long dist = prev.dist() + weight;
+                    var current = next.containsKey(node) ? next.get(node) : results.get(node);
+                    if (current == null || dist < current.dist()) {
+                        next.put(node, new Path<>(node, dist, prev));
+                    }
+                });
+            }
+            results.putAll(next);
+            changed = next.values();
+        }
+
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return results;
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * in a {@link CompiledGraph}.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     * @throws IllegalArgumentException if the graph contains a directed cycle of negative total weight that is
+     *         reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source) {
+        return findPaths(graph, source, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * in a {@link CompiledGraph}, and collects statistics about the search.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     * @throws IllegalArgumentException if the graph contains a directed cycle of negative total weight that is
+     *         reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        run(graph, graph.indexOf(source), dist, parent, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return graph.toPaths(dist, parent);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * in a {@link CompiledGraph} within the given budget.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source node. If the search is stopped, then the map contains the nodes found so
+     *         far, and the paths are not necessarily shortest paths.
+     * @throws IllegalArgumentException if a directed cycle of negative total weight that is reachable from the
+     *         source node is found before the search is stopped.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsBounded(CompiledGraph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        run(graph, graph.indexOf(source), dist, parent, tracker.stats(), tracker);
+        return tracker.result(graph.toPaths(dist, parent));
+    }
+
+    /**
+     * Runs the SPFA algorithm on a compiled graph and fills the given distance and parent arrays.
+     */
+    private static <T> void run(CompiledGraph<T> graph, int source, long[] dist, int[] parent, SearchStats stats,
+            SearchBudget.Tracker tracker) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long[] weights = graph.weights();
+
+        int[] edgeCount = new int[n];
+        boolean[] inQueue = new boolean[n];
+        Arrays.fill(dist, CompiledGraph.UNREACHABLE);
+
+        // Each node is contained in the queue at most once, so a ring buffer of size n is enough
+        int[] queue = new int[n];
+        int head = 0;
+        int size = 0;
+        dist[source] = 0;
+        parent[source] = -1;
+        queue[size++] = source;
+        inQueue[source] = true;
+        while (size > 0) {
+            if (tracker != null && !tracker.expand()) {
+                break;
+            }
+            if (stats != null) {
+                stats.queueSize(size);
+                stats.nodeExpanded();
+            }
+            int u = queue[head];
+            head = (head + 1) % n;
+            size--;
+            inQueue[u] = false;
+
+            for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                int v = targets[e];
+                long d = dist[u] + weights[e];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    parent[v] = u;
+                    edgeCount[v] = edgeCount[u] + 1;
+                    if (edgeCount[v] >= n) {
+                        throw new IllegalArgumentException(
+                                "The graph contains a negative cycle reachable from the source node.");
+                    }
+                    if (!inQueue[v]) {
+                        queue[(head + size++) % n] = v;
+                        inQueue[v] = true;
+                    }
+                }
+            }
+        }
+    }
 
-        var queue = new ArrayDeque<Path<T>>();
-        sources.forEach(s -> {
-            var path = new Path<T>(s, 0, null);
-            results.put(s, path);
-            queue.add(path);
-        });
+    /**
+     * Runs the SPFA algorithm and fills the given map of labels.
+     *
+     * @return the label of a node whose path contains a negative cycle or {@code null} if no negative cycle is found
+     */
+    private static <T> Label<T> run(WeightedGraph<T> graph, Stream<? extends T> sources,
+            HashMap<T, Label<T>> labels, SearchStats stats, SearchBudget.Tracker tracker) {
+        var queue = new LabelQueue<T>();
+        sources.forEach(s -> labels.computeIfAbsent(s, k -> {
+            var label = new Label<>(new Path<>(s, 0, null));
+            queue.add(label);
+            return label;
+        }));
 
         while (!queue.isEmpty()) {
+            if (tracker != null && !tracker.expand()) {
+                break;
+            }
+            if (stats != null) {
+                stats.queueSize(queue.deque.size());
+                stats.nodeExpanded();
+            }
             var prev = queue.poll();
-            graph.edges(prev.end()).forEach(edge -> {
-                var node = edge.end();
-                long dist = prev.dist() + edge.weight();
-                var currentPath = results.get(node);
-                if (currentPath == null || dist < currentPath.dist()) {
-                    var path = new Path<>(node, dist, prev);
-                    results.put(node, path);
-                    queue.add(path);
+            var prevPath = prev.path;
+            int edgeCount = prev.edgeCount + 1;
+            graph.forEachEdge(prevPath.end(), (node, weight) -> {
+                if (queue.cycle != null) {
+                    return;
+                }
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+
+                long dist = prevPath.dist() + weight;
+                var label = labels.get(node);
+                if (label == null) {
+                    label = new Label<>(new Path<>(node, dist, prevPath));
+                    labels.put(node, label);
+                } else if (dist < label.path.dist()) {
+                    queue.decrease(label, dist);
+                    label.path = new Path<>(node, dist, prevPath);
+                    if (edgeCount >= labels.size()) {
+                        queue.cycle = label;
+                        return;
+                    }
+                } else {
+                    return;
+                }
+
+                label.edgeCount = edgeCount;
+                if (!label.inQueue) {
+                    queue.add(label);
                 }
             });
+            if (queue.cycle != null) {
+                return queue.cycle;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The current state of a node during the SPFA algorithm.
+     */
+    private static final class Label<T> {
+
+        Path<T> path;
+        int edgeCount;
+        boolean inQueue;
+
+        Label(Path<T> path) {
+            this.path = path;
+        }
+
+    }
+
+    /**
+     * The queue of the SPFA algorithm. Each label is contained at most once, and the order of processing the labels
+     * is improved by the SLF and LLL heuristics.
+     */
+    private static final class LabelQueue<T> {
+
+        final ArrayDeque<Label<T>> deque = new ArrayDeque<>();
+        long sum; // the sum of the distances of the queued labels
+        Label<T> cycle; // the label whose path contains a negative cycle (if found)
+
+        boolean isEmpty() {
+            return deque.isEmpty();
+        }
+
+        /**
+         * Adds the given label to the front of the queue if its distance is smaller than the distance of the current
+         * front label (Small Label First), otherwise to the back.
+         */
+        void add(Label<T> label) {
+            label.inQueue = true;
+            sum += label.path.dist();
+            if (!deque.isEmpty() && label.path.dist() < deque.peek().path.dist()) {
+                deque.addFirst(label);
+            } else {
+                deque.addLast(label);
+            }
+        }
+
+        /**
+         * Moves the front label to the back of the queue while its distance is larger than the average distance
+         * (Large Label Last), and removes the front label.
+         */
+        Label<T> poll() {
+            var label = deque.poll();
+            for (int k = deque.size(); k > 0 && label.path.dist() > sum / (deque.size() + 1); k--) {
+                deque.add(label);
+                label = deque.poll();
+            }
+            label.inQueue = false;
+            sum -= label.path.dist();
+            return label;
+        }
+
+        /**
+         * Updates the sum of the distances before decreasing the distance of the given label.
+         */
+        void decrease(Label<T> label, long newDist) {
+            if (label.inQueue) {
+                sum -= label.path.dist() - newDist;
+            }
         }
 
-        return results;
     }
 
 }
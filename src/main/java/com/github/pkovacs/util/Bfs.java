@@ -1,11 +1,21 @@
 package com.github.pkovacs.util;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implements the BFS (breadth-first search) algorithm for traversing graphs and finding shortest paths
@@ -77,8 +87,222 @@ public final class Bfs {
      */
     public static <T> Optional<Path<T>> findPathFromAny(Graph<T> graph, Stream<? extends T> sources,
             Predicate<? super T> targetPredicate) {
-        var results = new HashMap<T, Path<T>>();
-        return run(graph, sources, targetPredicate, results);
+        return findPathFromAny(graph, sources, targetPredicate, null);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from the given source node to a target node
+     * identified by the given predicate, and collects statistics about the search.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(Graph<T> graph, T source, Predicate<? super T> targetPredicate,
+            SearchStats stats) {
+        return findPathFromAny(graph, Stream.of(source), targetPredicate, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from any of the given source nodes to
+     * a target node identified by the given predicate, and collects statistics about the search.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     */
+    public static <T> Optional<Path<T>> findPathFromAny(Graph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var result = run(graph, sources, targetPredicate, new HashMap<>(), stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return result;
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from the given source node to a target node
+     * identified by the given predicate within the given budget.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source node or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathBounded(Graph<T> graph, T source,
+            Predicate<? super T> targetPredicate, SearchBudget budget, SearchStats stats) {
+        return findPathFromAnyBounded(graph, Stream.of(source), targetPredicate, budget, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from any of the given source nodes to
+     * a target node identified by the given predicate within the given budget.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source nodes or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathFromAnyBounded(Graph<T> graph,
+            Stream<? extends T> sources, Predicate<? super T> targetPredicate, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        return tracker.result(run(graph, sources, targetPredicate, new HashMap<>(), tracker.stats(), tracker));
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from the given source node to the given
+     * target node using bidirectional search. The frontiers around the source node and the target node are grown
+     * alternately (always the smaller one is expanded by a complete level) until they meet. For a single target
+     * node, this can expand exponentially fewer nodes than {@link #findPath}.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param reverseGraph the reverse of {@code graph}, which provides the start nodes of the incoming edges for
+     *         each node. For an undirected graph, it can be the same as {@code graph}.
+     * @param source the source node.
+     * @param target the target node.
+     * @return a shortest {@link Path} to the target node or an empty optional if the target node is not reachable
+     *         from the source node.
+     */
+    public static <T> Optional<Path<T>> findPathBidirectional(Graph<T> graph, Graph<T> reverseGraph, T source,
+            T target) {
+        var forward = new HashMap<T, Path<T>>();
+        var backward = new HashMap<T, Path<T>>();
+        var forwardFrontier = new ArrayList<Path<T>>(List.of(new Path<>(source, 0, null)));
+        var backwardFrontier = new ArrayList<Path<T>>(List.of(new Path<>(target, 0, null)));
+        forward.put(source, forwardFrontier.getFirst());
+        backward.put(target, backwardFrontier.getFirst());
+        if (source.equals(target)) {
+            return Optional.of(forwardFrontier.getFirst());
+        }
+
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            // Expand a complete level of the smaller frontier, and check if the two search trees meet
+            boolean isForward = forwardFrontier.size() <= backwardFrontier.size();
+            var frontier = isForward ? forwardFrontier : backwardFrontier;
+            var visited = isForward ? forward : backward;
+            var other = isForward ? backward : forward;
+
+            var next = new ArrayList<Path<T>>();
+            Path<T> best = null;
+            Path<T> bestOther = null;
+            for (var prev : frontier) {
+                (isForward ? graph : reverseGraph).forEachNeighbor(prev.end(), node -> {
+                    if (!visited.containsKey(node)) {
+                        var path = new Path<>(node, prev.dist() + 1, prev);
+                        visited.put(node, path);
+                        next.add(path);
+                    }
+                });
+            }
+            for (var path : next) {
+                var otherPath = other.get(path.end());
+                if (otherPath != null && (best == null || path.dist() + otherPath.dist()
+                        < best.dist() + bestOther.dist())) {
+                    best = path;
+                    bestOther = otherPath;
+                }
+            }
+
+            if (best != null) {
+                return Optional.of(isForward ? join(best, bestOther) : join(bestOther, best));
+            }
+            if (isForward) {
+                forwardFrontier = next;
+            } else {
+                backwardFrontier = next;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Joins a path from the source node and a path from the target node (in the reverse graph) ending at the same
+     * node.
+     */
+    private static <T> Path<T> join(Path<T> forwardPath, Path<T> backwardPath) {
+        var path = forwardPath;
+        for (var p = backwardPath.prev(); p != null; p = p.prev()) {
+            path = new Path<>(p.end(), path.dist() + 1, path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns a lazy {@link Traversal} of the nodes reachable from the given source node in BFS order.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @return a {@link Traversal} that yields a shortest {@link Path} to each node reachable from the source node.
+     */
+    public static <T> Traversal<T> traverse(Graph<T> graph, T source) {
+        return traverseFromAny(graph, Stream.of(source));
+    }
+
+    /**
+     * Returns a lazy {@link Traversal} of the nodes reachable from any of the given source nodes in BFS order.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @return a {@link Traversal} that yields a shortest {@link Path} to each node reachable from the source nodes.
+     */
+    public static <T> Traversal<T> traverseFromAny(Graph<T> graph, Stream<? extends T> sources) {
+        return new Traversal<>(graph, sources);
+    }
+
+    /**
+     * Returns a lazy stream of shortest paths to the nodes within the given distance from the given source node in
+     * BFS order (i.e., in increasing order of distance). The graph is only explored as far as the stream is
+     * consumed, so short-circuiting operations like {@link Stream#takeWhile} or {@link Stream#findFirst} can be
+     * used to stop the search early.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @param maxDepth the maximum distance (number of edges) of the nodes to be included.
+     * @return a stream of shortest {@link Path} objects to the nodes within the given distance.
+     */
+    public static <T> Stream<Path<T>> stream(Graph<T> graph, T source, long maxDepth) {
+        return streamFromAny(graph, Stream.of(source), maxDepth);
+    }
+
+    /**
+     * Returns a lazy stream of shortest paths to the nodes within the given distance from any of the given source
+     * nodes in BFS order (i.e., in increasing order of distance). The graph is only explored as far as the stream is
+     * consumed, so short-circuiting operations like {@link Stream#takeWhile} or {@link Stream#findFirst} can be
+     * used to stop the search early.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @param maxDepth the maximum distance (number of edges) of the nodes to be included.
+     * @return a stream of shortest {@link Path} objects to the nodes within the given distance.
+     */
+    public static <T> Stream<Path<T>> streamFromAny(Graph<T> graph, Stream<? extends T> sources, long maxDepth) {
+        var traversal = traverseFromAny(graph, sources);
+        traversal.setMaxDepth(maxDepth);
+        return traversal.stream();
     }
 
     /**
@@ -101,13 +325,347 @@ public final class Bfs {
      * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
      */
     public static <T> Map<T, Path<T>> findPathsFromAny(Graph<T> graph, Stream<? extends T> sources) {
+        return findPathsFromAny(graph, sources, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from the given source node, and
+     * collects statistics about the search.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(Graph<T> graph, T source, SearchStats stats) {
+        return findPathsFromAny(graph, Stream.of(source), stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from any of the given
+     * source nodes, and collects statistics about the search.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
+     */
+    public static <T> Map<T, Path<T>> findPathsFromAny(Graph<T> graph, Stream<? extends T> sources,
+            SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
         var results = new HashMap<T, Path<T>>();
-        run(graph, sources, u -> false, results);
+        run(graph, sources, u -> false, results, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
         return results;
     }
 
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from the given source node
+     * within the given budget.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source node. If the search is stopped, then the map contains the nodes found so
+     *         far, and the paths are still shortest paths.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsBounded(Graph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        return findPathsFromAnyBounded(graph, Stream.of(source), budget, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from any of the given
+     * source nodes within the given budget.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source nodes. If the search is stopped, then the map contains the nodes found so
+     *         far, and the paths are still shortest paths.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsFromAnyBounded(Graph<T> graph,
+            Stream<? extends T> sources, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        var results = new HashMap<T, Path<T>>();
+        run(graph, sources, u -> false, results, tracker.stats(), tracker);
+        return tracker.result(results);
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes reachable from the given source node. This method does
+     * not construct {@link Path} objects, so it is faster and requires much less memory for huge graphs than
+     * {@link #findPaths}.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @return the {@link Distances} of the nodes reachable from the source node.
+     */
+    public static <T> Distances<T> findDistances(Graph<T> graph, T source) {
+        return findDistancesFromAny(graph, Stream.of(source));
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes reachable from any of the given source nodes.
+     * This method does not construct {@link Path} objects, so it is faster and requires much less memory for huge
+     * graphs than {@link #findPathsFromAny}.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @return the {@link Distances} of the nodes reachable from the source nodes.
+     */
+    public static <T> Distances<T> findDistancesFromAny(Graph<T> graph, Stream<? extends T> sources) {
+        return findDistancesFromAny(graph, sources, null);
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes reachable from the given source node, and collects
+     * statistics about the search. This method does not construct {@link Path} objects, so it is faster and requires
+     * much less memory for huge graphs than {@link #findPaths}.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return the {@link Distances} of the nodes reachable from the source node.
+     */
+    public static <T> Distances<T> findDistances(Graph<T> graph, T source, SearchStats stats) {
+        return findDistancesFromAny(graph, Stream.of(source), stats);
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes reachable from any of the given source nodes, and
+     * collects statistics about the search. This method does not construct {@link Path} objects, so it is faster
+     * and requires much less memory for huge graphs than {@link #findPathsFromAny}.
+     *
+     * @param graph the {@link Graph} that provides the neighbor nodes for each node.
+     * @param sources the source nodes.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return the {@link Distances} of the nodes reachable from the source nodes.
+     */
+    public static <T> Distances<T> findDistancesFromAny(Graph<T> graph, Stream<? extends T> sources,
+            SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var index = new NodeIndex<T>();
+        var result = new Distances<>(index);
+        sources.forEach(s -> {
+            int id = index.getOrAdd(s);
+            result.set(id, 0, -1);
+        });
+
+        // The nodes are numbered in the order they are discovered, so the ids themselves form the queue
+        for (int u = 0; u < index.size(); u++) {
+            if (stats != null) {
+                stats.queueSize(index.size() - u);
+                stats.nodeExpanded();
+            }
+            int parent = u;
+            long dist = result.getDist(u) + 1;
+            graph.forEachNeighbor(index.get(u), node -> {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                int size = index.size();
+                int v = index.getOrAdd(node);
+                if (v == size) {
+                    result.set(v, dist, parent);
+                }
+            });
+        }
+
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return result;
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from the given source node to a target node
+     * identified by the given predicate in a {@link CompiledGraph}. The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(CompiledGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate) {
+        return findPath(graph, source, targetPredicate, null);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from the given source node to a target node
+     * identified by the given predicate in a {@link CompiledGraph}, and collects statistics about the search.
+     * The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(CompiledGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        int target = run(graph, graph.indexOf(source), targetPredicate, dist, parent, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        @SuppressWarnings("unchecked")
+        var cache = (Path<T>[]) new Path<?>[graph.size()];
+        return target < 0 ? Optional.empty() : Optional.of(graph.toPath(target, dist, parent, cache));
+    }
+
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from the given source node in
+     * a {@link CompiledGraph}. The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source) {
+        return findPaths(graph, source, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from the given source node in
+     * a {@link CompiledGraph}, and collects statistics about the search. The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, parent, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return graph.toPaths(dist, parent);
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes from the given source node in a {@link CompiledGraph}.
+     * The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @return an array that contains the distance of each node indexed by the node ids. Unreachable nodes are
+     *         assigned {@link CompiledGraph#UNREACHABLE}.
+     */
+    public static <T> long[] findDistances(CompiledGraph<T> graph, T source) {
+        return findDistances(graph, source, null);
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes from the given source node in a {@link CompiledGraph},
+     * and collects statistics about the search. The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return an array that contains the distance of each node indexed by the node ids. Unreachable nodes are
+     *         assigned {@link CompiledGraph#UNREACHABLE}.
+     */
+    public static <T> long[] findDistances(CompiledGraph<T> graph, T source, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        long[] dist = new long[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, new int[graph.size()], stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return dist;
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the number of edges) from the given source node to a target node
+     * identified by the given predicate in a {@link CompiledGraph} within the given budget. The weights of the edges
+     * are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source node or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathBounded(CompiledGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        int target = run(graph, graph.indexOf(source), targetPredicate, dist, parent, tracker.stats(), tracker);
+        @SuppressWarnings("unchecked")
+        var cache = (Path<T>[]) new Path<?>[graph.size()];
+        var path = target < 0 ? Optional.<Path<T>>empty() : Optional.of(graph.toPath(target, dist, parent, cache));
+        return tracker.result(path);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from the given source node in
+     * a {@link CompiledGraph} within the given budget. The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source node. If the search is stopped, then the map contains the nodes found so
+     *         far, and the paths are still shortest paths.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsBounded(CompiledGraph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, parent, tracker.stats(), tracker);
+        return tracker.result(graph.toPaths(dist, parent));
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes from the given source node in a {@link CompiledGraph}
+     * within the given budget. The weights of the edges are ignored.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing an array that contains the distance of each node indexed by the
+     *         node ids. Unreachable nodes are assigned {@link CompiledGraph#UNREACHABLE}. If the search is stopped,
+     *         then the nodes not found so far are also assigned {@code UNREACHABLE}.
+     */
+    public static <T> SearchResult<long[]> findDistancesBounded(CompiledGraph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        long[] dist = new long[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, new int[graph.size()], tracker.stats(), tracker);
+        return tracker.result(dist);
+    }
+
     private static <T> Optional<Path<T>> run(Graph<T> graph, Stream<? extends T> sources,
-            Predicate<? super T> targetPredicate, HashMap<T, Path<T>> results) {
+            Predicate<? super T> targetPredicate, HashMap<T, Path<T>> results, SearchStats stats,
+            SearchBudget.Tracker tracker) {
         var queue = new ArrayDeque<Path<T>>();
         sources.forEach(s -> {
             var path = new Path<T>(s, 0, null);
@@ -116,19 +674,189 @@ public final class Bfs {
         });
 
         while (!queue.isEmpty()) {
+            if (tracker != null && !tracker.expand()) {
+                break;
+            }
+            if (stats != null) {
+                stats.queueSize(queue.size());
+                stats.nodeExpanded();
+            }
             var prev = queue.poll();
             if (targetPredicate.test(prev.end())) {
                 return Optional.of(prev);
             }
 
-            graph.neighbors(prev.end()).filter(node -> !results.containsKey(node)).forEach(node -> {
-                var path = new Path<>(node, prev.dist() + 1, prev);
-                results.put(node, path);
-                queue.add(path);
+            graph.forEachNeighbor(prev.end(), node -> {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                if (!results.containsKey(node)) {
+                    var path = new Path<>(node, prev.dist() + 1, prev);
+                    results.put(node, path);
+                    queue.add(path);
+                }
             });
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Runs the BFS algorithm on a compiled graph and fills the given distance and parent arrays.
+     *
+     * @return the id of the target node found or {@code -1}
+     */
+    private static <T> int run(CompiledGraph<T> graph, int source, Predicate<? super T> targetPredicate,
+            long[] dist, int[] parent, SearchStats stats, SearchBudget.Tracker tracker) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        Arrays.fill(dist, CompiledGraph.UNREACHABLE);
+
+        int[] queue = new int[graph.size()];
+        int head = 0;
+        int tail = 0;
+        dist[source] = 0;
+        parent[source] = -1;
+        queue[tail++] = source;
+        while (head < tail) {
+            if (tracker != null && !tracker.expand()) {
+                break;
+            }
+            if (stats != null) {
+                stats.queueSize(tail - head);
+                stats.nodeExpanded();
+            }
+            int u = queue[head++];
+            if (targetPredicate != null && targetPredicate.test(graph.node(u))) {
+                return u;
+            }
+
+            for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                int v = targets[e];
+                if (dist[v] == CompiledGraph.UNREACHABLE) {
+                    dist[v] = dist[u] + 1;
+                    parent[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * A lazy, resumable BFS traversal of a {@link Graph}. It is an {@link Iterator} that yields a shortest
+     * {@link Path} to each reachable node in BFS order (i.e., in increasing order of distance), and the graph is only
+     * explored as far as the iteration proceeds. Each element represents a (node, distance) pair: the node is
+     * {@link Path#end()}, and its distance from the nearest source node is {@link Path#dist()}. (The path itself
+     * is also available, because the elements are linked to their predecessors.)
+     * <p>
+     * The neighbors of a node are requested lazily: when the next element is requested after the node has been
+     * returned by {@link #next()}, and only if the distance of the node is less than the maximum depth.
+     * The traversal can be limited to a maximum depth: {@link #hasNext()} returns false if the next node is farther
+     * from the source nodes, and no node beyond the maximum depth is discovered. The maximum depth can be increased
+     * later to resume the traversal from the same state, so no node is visited twice.
+     *
+     * @param <T> the type of nodes
+     * @see Bfs#traverse(Graph, Object)
+     */
+    public static final class Traversal<T> implements Iterator<Path<T>> {
+
+        private final Graph<T> graph;
+        private final ArrayDeque<Path<T>> queue = new ArrayDeque<>();
+        private final ArrayDeque<Path<T>> unexpanded = new ArrayDeque<>(); // returned nodes in BFS order
+        private final Set<T> visited = new HashSet<>();
+        private long maxDepth = Long.MAX_VALUE;
+
+        private Traversal(Graph<T> graph, Stream<? extends T> sources) {
+            this.graph = graph;
+            sources.forEach(s -> {
+                if (visited.add(s)) {
+                    queue.add(new Path<>(s, 0, null));
+                }
+            });
+        }
+
+        /**
+         * Returns the maximum distance of the nodes returned by this traversal. It is unlimited by default.
+         */
+        public long maxDepth() {
+            return maxDepth;
+        }
+
+        /**
+         * Sets the maximum distance of the nodes returned by this traversal. If the traversal was stopped due to
+         * the previous limit, then increasing it resumes the traversal.
+         *
+         * @throws IllegalArgumentException if the given value is negative
+         */
+        public Traversal<T> setMaxDepth(long maxDepth) {
+            if (maxDepth < 0) {
+                throw new IllegalArgumentException("Negative max depth: " + maxDepth + ".");
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Returns true if the given node has been discovered by this traversal. This includes the source nodes,
+         * the nodes returned by {@link #next()}, and the neighbors of the returned nodes that have already been
+         * expanded (see the class description).
+         */
+        public boolean isVisited(T node) {
+            return visited.contains(node);
+        }
+
+        /**
+         * Returns the number of nodes discovered by this traversal.
+         */
+        public int visitedCount() {
+            return visited.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            expand();
+            return !queue.isEmpty() && queue.peek().dist() <= maxDepth;
+        }
+
+        @Override
+        public Path<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            var path = queue.poll();
+            unexpanded.add(path);
+            return path;
+        }
+
+        /**
+         * Expands the returned nodes that are closer than the maximum depth: their undiscovered neighbors are
+         * added to the queue.
+         */
+        private void expand() {
+            while (!unexpanded.isEmpty() && unexpanded.peek().dist() < maxDepth) {
+                var prev = unexpanded.poll();
+                graph.forEachNeighbor(prev.end(), node -> {
+                    if (visited.add(node)) {
+                        queue.add(new Path<>(node, prev.dist() + 1, prev));
+                    }
+                });
+            }
+        }
+
+        /**
+         * Returns a sequential stream of the remaining elements of this traversal (up to the current maximum depth).
+         */
+        public Stream<Path<T>> stream() {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                    Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+        }
+
+    }
+
 }
@@ -0,0 +1,200 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents the result of a BFS (breadth-first search) on the cells of an {@link AbstractTable}: the distance
+ * (number of steps between side-adjacent cells) of each cell from the nearest source cell.
+ * <p>
+ * The distances and the BFS tree are stored in {@code int} arrays indexed by the row-major index of the cells
+ * (i.e., {@code y * width + x}). {@link Pos} and {@link Path} objects are only created on demand for the cells
+ * that are actually queried, so this class is significantly faster and more memory-efficient for large tables than
+ * running {@link Bfs} on the {@linkplain AbstractTable#graph() neighbor graph} of the table.
+ *
+ * @see AbstractTable#findDistances(Pos)
+ * @see Bfs
+ */
+public final class CellDistances {
+
+    private static final int UNVISITED = -1;
+    private static final int BLOCKED = -2;
+
+    private final int width;
+    private final int height;
+    private final int[] dist;
+    private final int[] parent;
+
+    private CellDistances(int width, int height, int[] dist, int[] parent) {
+        this.width = width;
+        this.height = height;
+        this.dist = dist;
+        this.parent = parent;
+    }
+
+    /**
+     * Runs the BFS algorithm on a table of the given size. The cells accepted by the given predicate (identified by
+     * their row-major indices) can be entered, while the source cells are always included.
+     */
+    static CellDistances run(int width, int height, Collection<Pos> sources, IntPredicate cellFilter) {
+        int size = width * height;
+        int[] dist = new int[size];
+        int[] parent = new int[size];
+        Arrays.fill(dist, UNVISITED);
+
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (var s : sources) {
+            int i = s.yInt() * width + s.xInt();
+            if (dist[i] < 0) {
+                dist[i] = 0;
+                parent[i] = -1;
+                queue[tail++] = i;
+            }
+        }
+
+        while (head < tail) {
+            int i = queue[head++];
+            int x = i % width;
+            int d = dist[i] + 1;
+
+            // Neighbors are visited in lexicographical order, in accordance with AbstractTable.neighbors(Pos)
+            if (x > 0) {
+                tail = visit(i - 1, i, d, dist, parent, queue, tail, cellFilter);
+            }
+            if (i >= width) {
+                tail = visit(i - width, i, d, dist, parent, queue, tail, cellFilter);
+            }
+            if (i + width < size) {
+                tail = visit(i + width, i, d, dist, parent, queue, tail, cellFilter);
+            }
+            if (x < width - 1) {
+                tail = visit(i + 1, i, d, dist, parent, queue, tail, cellFilter);
+            }
+        }
+
+        return new CellDistances(width, height, dist, parent);
+    }
+
+    private static int visit(int j, int i, int d, int[] dist, int[] parent, int[] queue, int tail,
+            IntPredicate cellFilter) {
+        if (dist[j] == UNVISITED) {
+            if (cellFilter.test(j)) {
+                dist[j] = d;
+                parent[j] = i;
+                queue[tail++] = j;
+            } else {
+                dist[j] = BLOCKED;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Returns the width of the underlying table.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the underlying table.
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Returns true if the given cell is reachable from the source cell(s).
+     */
+    public boolean isReachable(Pos pos) {
+        return isReachable(pos.xInt(), pos.yInt());
+    }
+
+    /**
+     * Returns true if the given cell is reachable from the source cell(s).
+     */
+    public boolean isReachable(int x, int y) {
+        return dist(x, y) >= 0;
+    }
+
+    /**
+     * Returns the distance of the given cell from the nearest source cell or {@code -1} if the cell is
+     * not reachable.
+     */
+    public int dist(Pos pos) {
+        return dist(pos.xInt(), pos.yInt());
+    }
+
+    /**
+     * Returns the distance of the given cell from the nearest source cell or {@code -1} if the cell is
+     * not reachable.
+     */
+    public int dist(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return Math.max(dist[y * width + x], -1);
+    }
+
+    /**
+     * Returns one of the shortest paths from the nearest source cell to the given cell or an empty optional if
+     * the cell is not reachable. The returned {@link Path} is constructed on demand.
+     */
+    public Optional<Path<Pos>> path(Pos pos) {
+        if (!isReachable(pos)) {
+            return Optional.empty();
+        }
+        return Optional.of(toPath(pos.yInt() * width + pos.xInt()));
+    }
+
+    private Path<Pos> toPath(int i) {
+        // Collect the cell indices iteratively to avoid deep recursion for long paths
+        int[] chain = new int[dist[i] + 1];
+        for (int j = i, k = chain.length - 1; j >= 0; j = parent[j], k--) {
+            chain[k] = j;
+        }
+
+        Path<Pos> path = null;
+        for (int j : chain) {
+            path = new Path<>(new Pos(j % width, j / width), dist[j], path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of cells reachable from the source cell(s), including the source cells themselves.
+     */
+    public int count() {
+        return (int) IntStream.of(dist).filter(d -> d >= 0).count();
+    }
+
+    /**
+     * Returns the maximum distance among the reachable cells or {@code -1} if there are no reachable cells.
+     */
+    public int maxDist() {
+        return IntStream.of(dist).max().orElse(-1);
+    }
+
+    /**
+     * Returns an ordered stream of the cells reachable from the source cell(s). The stream is ordered row by row
+     * (not lexicographically), in accordance with {@link AbstractTable#cells()}.
+     */
+    public Stream<Pos> reachableCells() {
+        return IntStream.range(0, dist.length).filter(i -> dist[i] >= 0).mapToObj(i -> new Pos(i % width, i / width));
+    }
+
+    /**
+     * Creates a new {@link IntTable} that contains the distance of each cell. Unreachable cells are assigned
+     * {@code -1}.
+     */
+    public IntTable toTable() {
+        return new IntTable(width, height, p -> dist(p));
+    }
+
+}
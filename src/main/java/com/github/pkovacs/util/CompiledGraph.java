@@ -0,0 +1,231 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents an immutable snapshot of the part of a {@link Graph} or {@link WeightedGraph} that is reachable from
+ * certain source nodes. The nodes are numbered by dense {@code int} ids ({@code 0, 1, ..., n-1}) in the order they
+ * are discovered by a BFS, and the edges are stored in
+ * <a href="https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)">compressed
+ * sparse row</a> format: the end nodes and weights of the outgoing edges of node {@code u} are stored in
+ * {@code targets[offsets[u]..offsets[u+1]-1]} and {@code weights[offsets[u]..offsets[u+1]-1]}, respectively.
+ * <p>
+ * {@link Graph} and {@link WeightedGraph} are purely functional, so each search algorithm evaluates the neighbor
+ * functions and allocates stream objects again and again. If many searches are executed on the same static graph,
+ * then it is worth compiling the graph once. {@link Bfs}, {@link Dijkstra}, and {@link BellmanFord} provide
+ * overloaded methods that run on compiled graphs using primitive arrays, and {@link Path} objects are only
+ * constructed for the result.
+ *
+ * @param <T> the type of nodes in the graph
+ * @see Graph#compile(Object)
+ * @see WeightedGraph#compile(Object)
+ */
+public final class CompiledGraph<T> {
+
+    /** The distance value used for unreachable nodes in the distance arrays. */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final NodeIndex<T> index;
+    private final int[] offsets;
+    private final int[] targets;
+    private final long[] weights;
+
+    private CompiledGraph<T> reverse;
+
+    CompiledGraph(NodeIndex<T> index, int[] offsets, int[] targets, long[] weights) {
+        this.index = index;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Compiles the part of the given weighted graph that is reachable from the given source nodes.
+     */
+    static <T> CompiledGraph<T> of(WeightedGraph<T> graph, Stream<? extends T> sources) {
+        var index = new NodeIndex<T>();
+        sources.forEach(index::getOrAdd);
+
+        int[] offsets = new int[16];
+        int[] targets = new int[16];
+        long[] weights = new long[16];
+        int edgeCount = 0;
+        for (int u = 0; u < index.size(); u++) {
+            if (u + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+            }
+            offsets[u] = edgeCount;
+            var it = graph.edges(index.get(u)).iterator();
+            while (it.hasNext()) {
+                var edge = it.next();
+                if (edgeCount == targets.length) {
+                    targets = Arrays.copyOf(targets, 2 * edgeCount);
+                    weights = Arrays.copyOf(weights, 2 * edgeCount);
+                }
+                targets[edgeCount] = index.getOrAdd(edge.end());
+                weights[edgeCount] = edge.weight();
+                edgeCount++;
+            }
+        }
+
+        int n = index.size();
+        offsets = Arrays.copyOf(offsets, n + 1);
+        offsets[n] = edgeCount;
+        return new CompiledGraph<>(index, offsets, Arrays.copyOf(targets, edgeCount),
+                Arrays.copyOf(weights, edgeCount));
+    }
+
+    /**
+     * Returns the number of nodes in this graph.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of (directed) edges in this graph.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the node with the given id.
+     *
+     * @throws IndexOutOfBoundsException if the id is out of range
+     */
+    public T node(int id) {
+        return index.get(Objects.checkIndex(id, size()));
+    }
+
+    /**
+     * Returns the id of the given node or {@code -1} if this graph does not contain the node.
+     */
+    public int id(T node) {
+        return index.indexOf(node);
+    }
+
+    /**
+     * Returns true if this graph contains the given node.
+     */
+    public boolean contains(T node) {
+        return index.indexOf(node) >= 0;
+    }
+
+    /**
+     * Returns an ordered stream of the nodes of this graph (in the order of their ids).
+     */
+    public Stream<T> nodes() {
+        return IntStream.range(0, size()).mapToObj(index::get);
+    }
+
+    /**
+     * Returns the number of outgoing edges of the node with the given id.
+     */
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Returns an ordered stream of the ids of the end nodes of the outgoing edges of the node with the given id.
+     */
+    public IntStream neighbors(int id) {
+        return Arrays.stream(targets, offsets[id], offsets[id + 1]);
+    }
+
+    /**
+     * Returns the reverse (transpose) of this graph, which contains the same nodes with the same ids, but the
+     * direction of each edge is reversed. The returned graph is constructed on demand and cached.
+     * <p>
+     * Note that the reverse graph might contain nodes that are not reachable from the original source nodes.
+     */
+    public CompiledGraph<T> reverse() {
+        if (reverse == null) {
+            // Lazy load: counting sort of the edges by their end nodes
+            int n = size();
+            int[] revOffsets = new int[n + 1];
+            for (int v : targets) {
+                revOffsets[v + 1]++;
+            }
+            Arrays.parallelPrefix(revOffsets, Integer::sum);
+
+            int[] revTargets = new int[targets.length];
+            long[] revWeights = new long[targets.length];
+            int[] next = Arrays.copyOf(revOffsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int i = next[targets[e]]++;
+                    revTargets[i] = u;
+                    revWeights[i] = weights[e];
+                }
+            }
+            reverse = new CompiledGraph<>(index, revOffsets, revTargets, revWeights);
+            reverse.reverse = this;
+        }
+        return reverse;
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    long[] weights() {
+        return weights;
+    }
+
+    int indexOf(T node) {
+        int id = index.indexOf(node);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown node: " + node + ".");
+        }
+        return id;
+    }
+
+    /**
+     * Constructs the {@link Path} objects for all reachable nodes according to the given distance and parent arrays.
+     * Unreachable nodes have {@link #UNREACHABLE} distance, and the parent of the source nodes is {@code -1}.
+     */
+    Map<T, Path<T>> toPaths(long[] dist, int[] parent) {
+        @SuppressWarnings("unchecked")
+        var cache = (Path<T>[]) new Path<?>[size()];
+        var result = new HashMap<T, Path<T>>();
+        for (int id = 0; id < size(); id++) {
+            if (dist[id] != UNREACHABLE) {
+                result.put(index.get(id), toPath(id, dist, parent, cache));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Constructs the {@link Path} object for the given reachable node according to the given distance and parent
+     * arrays. The paths are cached in the given array, so shared prefixes are only constructed once.
+     */
+    Path<T> toPath(int id, long[] dist, int[] parent, Path<T>[] cache) {
+        // Collect the ancestors without a cached path iteratively to avoid deep recursion for long paths
+        int[] stack = new int[16];
+        int size = 0;
+        for (int v = id; v >= 0 && cache[v] == null; v = parent[v]) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, 2 * size);
+            }
+            stack[size++] = v;
+        }
+
+        while (size > 0) {
+            int v = stack[--size];
+            cache[v] = new Path<>(index.get(v), dist[v], parent[v] >= 0 ? cache[parent[v]] : null);
+        }
+        return cache[id];
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.github.pkovacs.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock-free, thread-safe variant of {@link UnionFind}: a disjoint-set forest of the elements
+ * {@code 0, 1, ..., n-1} that can be updated from multiple threads concurrently, e.g., by processing a stream of
+ * edges in parallel.
+ * <p>
+ * The parent of each element is stored in an {@link AtomicIntegerArray}, and the roots are linked by
+ * compare-and-set operations. Union by size is not possible without locking, so the roots are linked according to
+ * a fixed pseudo-random priority of the elements (randomized linking), which also ensures that concurrent links
+ * cannot form a cycle. {@link #find} applies path halving by compare-and-set operations, which might fail without
+ * any harm.
+ * <p>
+ * The component sizes are not maintained concurrently. They can be queried by converting the forest into
+ * a {@link UnionFind} by {@link #toUnionFind()} when there are no concurrent updates.
+ *
+ * @see UnionFind
+ */
+public final class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parent;
+    private final AtomicInteger componentCount;
+
+    /**
+     * Creates a new union-find data structure of the elements {@code 0, 1, ..., n-1}, each of which forms
+     * a separate component.
+     *
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public ConcurrentUnionFind(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Negative number of elements: " + n + ".");
+        }
+
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+        componentCount = new AtomicInteger(n);
+    }
+
+    /**
+     * Returns the number of elements.
+     */
+    public int size() {
+        return parent.length();
+    }
+
+    /**
+     * Returns the number of components.
+     */
+    public int componentCount() {
+        return componentCount.get();
+    }
+
+    /**
+     * Returns the representative element (root) of the component that contains the given element. If the component
+     * is merged with another one concurrently, the returned element might not be the root anymore.
+     */
+    public int find(int i) {
+        while (true) {
+            int p = parent.get(i);
+            if (p == i) {
+                return i;
+            }
+            int gp = parent.get(p);
+            if (gp != p) {
+                // Path halving (it does not matter if another thread has changed the parent in the meantime)
+                parent.compareAndSet(i, p, gp);
+            }
+            i = gp;
+        }
+    }
+
+    /**
+     * Merges the components that contain the given elements.
+     *
+     * @return true if the elements were contained in different components (and this call merged them)
+     */
+    public boolean union(int i, int j) {
+        while (true) {
+            int a = find(i);
+            int b = find(j);
+            if (a == b) {
+                return false;
+            }
+
+            // Link the root with lower priority under the other one. If it is not a root anymore, then retry.
+            if (Integer.compareUnsigned(priority(a), priority(b)) > 0) {
+                int tmp = a;
+                a = b;
+                b = tmp;
+            }
+            if (parent.compareAndSet(a, a, b)) {
+                componentCount.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the given elements are contained in the same component.
+     */
+    public boolean connected(int i, int j) {
+        while (true) {
+            int a = find(i);
+            int b = find(j);
+            if (a == b) {
+                return true;
+            }
+            if (parent.get(a) == a) {
+                // a was still a root after finding b, so the elements were in different components at that moment
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Creates a new {@link UnionFind} with the same components. This method should only be called when there are
+     * no concurrent updates.
+     */
+    public UnionFind toUnionFind() {
+        var result = new UnionFind(size());
+        for (int i = 0; i < size(); i++) {
+            result.union(i, find(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the priority of the given element: a bijective hash of it, so the priorities are distinct.
+     */
+    private static int priority(int i) {
+        return i * 0x9E3779B9;
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Implements algorithms for directed acyclic graphs (DAGs): topological ordering and dynamic programming over the
+ * nodes in topological order (e.g., counting paths, or finding longest paths).
+ * <p>
+ * The input is a directed {@link Graph} and one or more source nodes. The part of the graph that is reachable from
+ * the source nodes is {@linkplain Graph#compileFromAny compiled} first, and the nodes are arranged into
+ * <i>layers</i> iteratively (without recursion, so the depth of the graph is not limited by the stack size):
+ * layer 0 contains the sink nodes (having no outgoing edges), and layer {@code i} contains the nodes whose
+ * successors are all in layers {@code 0..i-1}. Nodes in the same layer do not depend on each other, so they can be
+ * processed in parallel.
+ * <p>
+ * If the reachable part of the graph contains a directed cycle, then an {@link IllegalArgumentException} is thrown.
+ */
+public final class Dag {
+
+    private Dag() {
+    }
+
+    /**
+     * Returns the nodes reachable from the given source node in topological order. That is, each node precedes
+     * all of its successors in the returned list.
+     *
+     * @param graph the {@link Graph} that provides the successors of each node.
+     * @param source the source node.
+     * @return the list of the nodes reachable from the source node in topological order.
+     * @throws IllegalArgumentException if the graph contains a directed cycle reachable from the source node.
+     */
+    public static <T> List<T> topologicalOrder(Graph<T> graph, T source) {
+        return topologicalOrderFromAny(graph, Stream.of(source));
+    }
+
+    /**
+     * Returns the nodes reachable from any of the given source nodes in topological order. That is, each node
+     * precedes all of its successors in the returned list.
+     *
+     * @param graph the {@link Graph} that provides the successors of each node.
+     * @param sources the source nodes.
+     * @return the list of the nodes reachable from the source nodes in topological order.
+     * @throws IllegalArgumentException if the graph contains a directed cycle reachable from the source nodes.
+     */
+    public static <T> List<T> topologicalOrderFromAny(Graph<T> graph, Stream<? extends T> sources) {
+        var compiledGraph = graph.compileFromAny(sources);
+        int[] order = layers(compiledGraph).order;
+        return IntStream.range(0, order.length).mapToObj(i -> compiledGraph.node(order[order.length - 1 - i]))
+                .toList();
+    }
+
+    /**
+     * Calculates a value for each node reachable from the given source node by dynamic programming over the
+     * successors of the nodes. See {@link #reduceFromAny} for the details.
+     *
+     * @param graph the {@link Graph} that provides the successors of each node.
+     * @param source the source node.
+     * @param base the function that provides the initial value of a node.
+     * @param plus the associative function to combine the values (e.g., {@code Long::sum} or {@code Math::max}).
+     * @param extend the function that extends the value of a successor node to the node itself (e.g.,
+     *         {@code (u, x) -> x} for counting paths or {@code (u, x) -> x + 1} for longest paths).
+     * @return a map that associates the calculated value with each node reachable from the source node.
+     * @throws IllegalArgumentException if the graph contains a directed cycle reachable from the source node.
+     */
+    public static <T, R> Map<T, R> reduce(Graph<T> graph, T source, Function<? super T, ? extends R> base,
+            BinaryOperator<R> plus, BiFunction<? super T, ? super R, ? extends R> extend) {
+        return reduceFromAny(graph, Stream.of(source), base, plus, extend);
+    }
+
+    /**
+     * Calculates a value for each node reachable from any of the given source nodes by dynamic programming over
+     * the successors of the nodes. The nodes are processed in reverse topological order, and the value of each
+     * node {@code u} is calculated as
+     * <pre>
+     * value(u) = base(u) + extend(u, value(v1)) + extend(u, value(v2)) + ... + extend(u, value(vk))
+     * </pre>
+     * where {@code +} denotes the given {@code plus} operation, and {@code v1, v2, ..., vk} are the successors of
+     * {@code u}. Parallel edges are taken into account with their multiplicity.
+     * <p>
+     * For example, the number of paths from each node to a node {@code t} can be calculated with
+     * {@code base = u -> u.equals(t) ? 1L : 0L}, {@code plus = Long::sum}, and {@code extend = (u, x) -> x}.
+     *
+     * @param graph the {@link Graph} that provides the successors of each node.
+     * @param sources the source nodes.
+     * @param base the function that provides the initial value of a node.
+     * @param plus the associative function to combine the values (e.g., {@code Long::sum} or {@code Math::max}).
+     * @param extend the function that extends the value of a successor node to the node itself (e.g.,
+     *         {@code (u, x) -> x} for counting paths or {@code (u, x) -> x + 1} for longest paths).
+     * @return a map that associates the calculated value with each node reachable from the source nodes.
+     * @throws IllegalArgumentException if the graph contains a directed cycle reachable from the source nodes.
+     */
+    public static <T, R> Map<T, R> reduceFromAny(Graph<T> graph, Stream<? extends T> sources,
+            Function<? super T, ? extends R> base, BinaryOperator<R> plus,
+            BiFunction<? super T, ? super R, ? extends R> extend) {
+        return reduce(graph.compileFromAny(sources), base, plus, extend, false);
+    }
+
+    /**
+     * Calculates a value for each node reachable from any of the given source nodes by dynamic programming over
+     * the successors of the nodes, just like {@link #reduceFromAny}, but the nodes of each layer are processed in
+     * parallel using the common {@link ForkJoinPool}. Therefore, the given functions must be thread-safe.
+     *
+     * @param graph the {@link Graph} that provides the successors of each node.
+     * @param sources the source nodes.
+     * @param base the function that provides the initial value of a node.
+     * @param plus the associative function to combine the values (e.g., {@code Long::sum} or {@code Math::max}).
+     * @param extend the function that extends the value of a successor node to the node itself (e.g.,
+     *         {@code (u, x) -> x} for counting paths or {@code (u, x) -> x + 1} for longest paths).
+     * @return a map that associates the calculated value with each node reachable from the source nodes.
+     * @throws IllegalArgumentException if the graph contains a directed cycle reachable from the source nodes.
+     */
+    public static <T, R> Map<T, R> parallelReduceFromAny(Graph<T> graph, Stream<? extends T> sources,
+            Function<? super T, ? extends R> base, BinaryOperator<R> plus,
+            BiFunction<? super T, ? super R, ? extends R> extend) {
+        return reduce(graph.compileFromAny(sources), base, plus, extend, true);
+    }
+
+    private static <T, R> Map<T, R> reduce(CompiledGraph<T> graph, Function<? super T, ? extends R> base,
+            BinaryOperator<R> plus, BiFunction<? super T, ? super R, ? extends R> extend, boolean parallel) {
+        var layers = layers(graph);
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        @SuppressWarnings("unchecked")
+        var values = (R[]) new Object[graph.size()];
+        for (int l = 0; l + 1 < layers.starts.length; l++) {
+            var stream = Arrays.stream(layers.order, layers.starts[l], layers.starts[l + 1]);
+            (parallel ? stream.parallel() : stream).forEach(u -> {
+                var node = graph.node(u);
+                R value = base.apply(node);
+                for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                    value = plus.apply(value, extend.apply(node, values[targets[e]]));
+                }
+                values[u] = value;
+            });
+        }
+
+        var result = new HashMap<T, R>();
+        for (int u = 0; u < values.length; u++) {
+            result.put(graph.node(u), values[u]);
+        }
+        return result;
+    }
+
+    /**
+     * Arranges the nodes of the given graph into layers (starting with the sink nodes) using Kahn's algorithm on
+     * the reverse graph.
+     */
+    private static Layers layers(CompiledGraph<?> graph) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] remaining = new int[n]; // the number of outgoing edges to unprocessed nodes
+        int[] order = new int[n];
+        int size = 0;
+        for (int u = 0; u < n; u++) {
+            remaining[u] = offsets[u + 1] - offsets[u];
+            if (remaining[u] == 0) {
+                order[size++] = u;
+            }
+        }
+
+        var reverse = graph.reverse();
+        int[] revOffsets = reverse.offsets();
+        int[] revTargets = reverse.targets();
+        var starts = IntStream.builder().add(0);
+        for (int start = 0, end = size; start < end; start = end, end = size) {
+            for (int i = start; i < end; i++) {
+                int v = order[i];
+                for (int e = revOffsets[v]; e < revOffsets[v + 1]; e++) {
+                    int u = revTargets[e];
+                    if (--remaining[u] == 0) {
+                        order[size++] = u;
+                    }
+                }
+            }
+            starts.add(end);
+        }
+
+        if (size < n) {
+            throw new IllegalArgumentException("The graph contains a directed cycle.");
+        }
+        return new Layers(order, starts.build().toArray());
+    }
+
+    /**
+     * The nodes arranged into layers: layer {@code i} is {@code order[starts[i]..starts[i+1]-1]}.
+     */
+    private record Layers(int[] order, int[] starts) {}
+
+}
@@ -0,0 +1,226 @@
+package com.github.pkovacs.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Implements the parallel <a href="https://doi.org/10.1016/S0196-6774(03)00076-2">delta-stepping</a> algorithm for
+ * finding shortest paths in weighted graphs. This algorithm only supports non-negative edge weights.
+ * <p>
+ * The nodes are organized into buckets according to their tentative distances: bucket {@code i} contains the nodes
+ * with tentative distance in the range {@code [i*delta..(i+1)*delta-1]}. The buckets are processed one after the
+ * other, but the <i>light</i> edges (weight at most {@code delta}) of all nodes in the current bucket are relaxed in
+ * parallel using the common {@link ForkJoinPool}, repeatedly until the bucket becomes empty. Then the <i>heavy</i>
+ * edges of the nodes removed from the bucket are relaxed in parallel as well. With {@code delta = 1} and unit
+ * weights, this is a parallel BFS; with {@code delta = infinity}, this is a parallel Bellman-Ford algorithm.
+ * A good choice is usually around the average edge weight.
+ * <p>
+ * The algorithm runs on a {@link CompiledGraph}. The results are equivalent to the results of {@link Dijkstra}: the
+ * distances are the same, and each returned path is a shortest path. However, in the case of multiple shortest
+ * paths, the returned path might be different from the one found by {@link Dijkstra}.
+ *
+ * @see Dijkstra
+ * @see ParallelBfs
+ */
+public final class DeltaStepping {
+
+    private static final VarHandle DIST = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private DeltaStepping() {
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node.
+     * The reachable part of the graph is {@linkplain WeightedGraph#compile(Object) compiled} first.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param delta the width of the buckets (a positive value).
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source, long delta) {
+        return findPaths(CompiledGraph.of(graph, Stream.of(source)), source, delta);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param delta the width of the buckets (a positive value).
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source, long delta) {
+        long[] dist = findDistances(graph, source, delta);
+        return graph.toPaths(dist, findParents(graph, dist, graph.indexOf(source)));
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes from the given source node.
+     * This method does not construct {@link Path} objects, so it is much faster and requires much less memory for
+     * huge graphs than {@link #findPaths}.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param delta the width of the buckets (a positive value).
+     * @return an array that contains the distance of each node indexed by the node ids. Unreachable nodes are
+     *         assigned {@link CompiledGraph#UNREACHABLE}.
+     */
+    public static <T> long[] findDistances(CompiledGraph<T> graph, T source, long delta) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("Non-positive delta: " + delta + ".");
+        }
+
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long[] weights = graph.weights();
+        if (Arrays.stream(weights).parallel().anyMatch(w -> w < 0)) {
+            throw new IllegalArgumentException("Negative edge weight.");
+        }
+
+        long[] dist = new long[n];
+        Arrays.fill(dist, CompiledGraph.UNREACHABLE);
+        int s = graph.indexOf(source);
+        dist[s] = 0;
+
+        // Non-empty buckets are stored in a sorted map, so large gaps between the buckets are skipped efficiently
+        var buckets = new TreeMap<Long, IntStream.Builder>();
+        buckets.put(0L, IntStream.builder().add(s));
+
+        int[] stamp = new int[n];
+        int round = 0;
+        while (!buckets.isEmpty()) {
+            long bucket = buckets.firstKey();
+            var removed = IntStream.builder();
+            while (buckets.containsKey(bucket)) {
+                // Take the nodes that are still in the current bucket (skipping outdated and duplicate entries)
+                round++;
+                var frontier = IntStream.builder();
+                for (int v : buckets.remove(bucket).build().toArray()) {
+                    if (dist[v] / delta == bucket && stamp[v] != round) {
+                        stamp[v] = round;
+                        frontier.add(v);
+                        removed.add(v);
+                    }
+                }
+
+                int[] changed = relax(frontier.build().toArray(), offsets, targets, weights, dist, w -> w <= delta);
+                addAll(buckets, changed, dist, delta);
+            }
+
+            int[] settled = removed.build().distinct().toArray();
+            int[] changed = relax(settled, offsets, targets, weights, dist, w -> w > delta);
+            addAll(buckets, changed, dist, delta);
+        }
+
+        return dist;
+    }
+
+    private static void addAll(TreeMap<Long, IntStream.Builder> buckets, int[] nodes, long[] dist, long delta) {
+        for (int v : nodes) {
+            buckets.computeIfAbsent(dist[v] / delta, b -> IntStream.builder()).add(v);
+        }
+    }
+
+    /**
+     * Relaxes the edges of the given nodes accepted by the given weight filter in parallel.
+     *
+     * @return the nodes whose tentative distances were decreased (possibly with repetitions)
+     */
+    private static int[] relax(int[] nodes, int[] offsets, int[] targets, long[] weights, long[] dist,
+            LongPredicate weightFilter) {
+        return IntStream.of(nodes).parallel()
+                .flatMap(u -> {
+                    var changed = IntStream.builder();
+                    long du = dist[u];
+                    for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                        if (weightFilter.test(weights[e]) && decreaseDist(dist, targets[e], du + weights[e])) {
+                            changed.add(targets[e]);
+                        }
+                    }
+                    return changed.build();
+                })
+                .toArray();
+    }
+
+    /**
+     * Atomically decreases the distance of the given node to the given value if it is smaller than the current one.
+     */
+    private static boolean decreaseDist(long[] dist, int v, long newDist) {
+        long current = (long) DIST.getVolatile(dist, v);
+        while (newDist < current) {
+            if (DIST.compareAndSet(dist, v, current, newDist)) {
+                return true;
+            }
+            current = (long) DIST.getVolatile(dist, v);
+        }
+        return false;
+    }
+
+    /**
+     * Calculates a shortest path tree based on the final distances. For each node, a parent is chosen along an
+     * incoming edge with {@code dist[u] + w == dist[v]}. To avoid cycles of 0-weight edges, only parents with
+     * strictly smaller distance are assigned in parallel, and the remaining nodes (e.g., the nodes at distance 0
+     * other than the source) are handled by a sequential BFS along the "tight" edges. Only the source node is
+     * a root.
+     */
+    private static int[] findParents(CompiledGraph<?> graph, long[] dist, int source) {
+        int n = graph.size();
+        var reverse = graph.reverse();
+        int[] offsets = reverse.offsets();
+        int[] sources = reverse.targets();
+        long[] weights = reverse.weights();
+
+        int[] parent = new int[n];
+        int[] pending = IntStream.range(0, n).parallel()
+                .filter(v -> {
+                    parent[v] = -1;
+                    if (v == source || dist[v] == CompiledGraph.UNREACHABLE) {
+                        return false;
+                    }
+                    for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                        long du = dist[sources[e]];
+                        if (du < dist[v] && du + weights[e] == dist[v]) {
+                            parent[v] = sources[e];
+                            return false;
+                        }
+                    }
+                    return true;
+                })
+                .toArray();
+
+        if (pending.length > 0) {
+            boolean[] visited = new boolean[n];
+            Arrays.fill(visited, true);
+            IntStream.of(pending).forEach(v -> visited[v] = false);
+            int[] queue = IntStream.range(0, n).filter(v -> visited[v] && dist[v] != CompiledGraph.UNREACHABLE)
+                    .toArray();
+            queue = Arrays.copyOf(queue, queue.length + pending.length);
+            int[] fwdOffsets = graph.offsets();
+            int[] fwdTargets = graph.targets();
+            long[] fwdWeights = graph.weights();
+            for (int head = 0, tail = queue.length - pending.length; head < tail; head++) {
+                int u = queue[head];
+                for (int e = fwdOffsets[u], end = fwdOffsets[u + 1]; e < end; e++) {
+                    int v = fwdTargets[e];
+                    if (!visited[v] && dist[u] + fwdWeights[e] == dist[v]) {
+                        visited[v] = true;
+                        parent[v] = u;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+
+        return parent;
+    }
+
+}
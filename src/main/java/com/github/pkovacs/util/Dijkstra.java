@@ -1,11 +1,13 @@
 package com.github.pkovacs.util;
 
-import java.util.Comparator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.PriorityQueue;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -24,12 +26,22 @@ import java.util.stream.Stream;
  * requested by the algorithm. For example, the nodes and edges might represent the feasible states and steps of
  * a game or a combinatorial problem, respectively, and we might not be able to or do not want to enumerate all
  * possible (and reachable) states in advance.
+ * <p>
+ * If the edge weights are known to be small non-negative integers (e.g., 0/1 turn penalties or cell costs between
+ * 1 and 9), then the overloaded methods with a {@code maxWeight} parameter can be used. They replace the heap
+ * with a circular array of buckets (Dial's algorithm), or a deque if all weights are 0 or 1 (0-1 BFS), so the queue
+ * operations take amortized constant time. For a {@code maxWeight} above {@value #MAX_BUCKET_WEIGHT}, the buckets
+ * would not pay off, so the heap is used anyway (but the edge weights are still checked).
  *
  * @see Bfs
  * @see BellmanFord
+ * @see AStar
  */
 public final class Dijkstra {
 
+    /** The maximum edge weight for which Dial's algorithm is used. */
+    static final int MAX_BUCKET_WEIGHT = 1 << 16;
+
     private Dijkstra() {
     }
 
@@ -81,8 +93,221 @@ public final class Dijkstra {
      */
     public static <T> Optional<Path<T>> findPathFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
             Predicate<? super T> targetPredicate) {
-        var results = new HashMap<T, Path<T>>();
-        return run(graph, sources, targetPredicate, results);
+        return findPathFromAny(graph, sources, targetPredicate, null);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate, and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, SearchStats stats) {
+        return findPathFromAny(graph, Stream.of(source), targetPredicate, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate, and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     */
+    public static <T> Optional<Path<T>> findPathFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var targets = new ArrayList<Path<T>>(1);
+        run(graph, sources, targetPredicate, 1, targets, new HashMap<>(), stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return targets.stream().findFirst();
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source node or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathBounded(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, SearchBudget budget, SearchStats stats) {
+        return findPathFromAnyBounded(graph, Stream.of(source), targetPredicate, budget, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source nodes or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, Predicate<? super T> targetPredicate, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        var targets = new ArrayList<Path<T>>(1);
+        run(graph, sources, targetPredicate, 1, targets, new HashMap<>(), tracker.stats(), tracker);
+        return tracker.result(targets.stream().findFirst());
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) from the given source node to the nearest {@code k}
+     * target nodes identified by the given predicate. The algorithm terminates as soon as {@code k} target nodes
+     * are reached, so it is usually much faster than calling {@link #findPaths} and sorting the results.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target nodes.
+     * @param k the maximum number of target nodes to be found.
+     * @return a list of shortest {@link Path} objects to the nearest {@code k} target nodes (or to all target nodes
+     *         reachable from the source node if there are fewer) in increasing order of distance.
+     */
+    public static <T> List<Path<T>> findNearestPaths(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, int k) {
+        return findNearestPathsFromAny(graph, Stream.of(source), targetPredicate, k);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) from any of the given source nodes to the nearest
+     * {@code k} target nodes identified by the given predicate. The algorithm terminates as soon as {@code k}
+     * target nodes are reached, so it is usually much faster than calling {@link #findPathsFromAny} and sorting
+     * the results.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target nodes.
+     * @param k the maximum number of target nodes to be found.
+     * @return a list of shortest {@link Path} objects to the nearest {@code k} target nodes (or to all target nodes
+     *         reachable from the source nodes if there are fewer) in increasing order of distance.
+     */
+    public static <T> List<Path<T>> findNearestPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, int k) {
+        return findNearestPathsFromAny(graph, sources, targetPredicate, k, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) from the given source node to the nearest {@code k}
+     * target nodes identified by the given predicate, and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target nodes.
+     * @param k the maximum number of target nodes to be found.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a list of shortest {@link Path} objects to the nearest {@code k} target nodes (or to all target nodes
+     *         reachable from the source node if there are fewer) in increasing order of distance.
+     */
+    public static <T> List<Path<T>> findNearestPaths(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, int k, SearchStats stats) {
+        return findNearestPathsFromAny(graph, Stream.of(source), targetPredicate, k, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) from any of the given source nodes to the nearest
+     * {@code k} target nodes identified by the given predicate, and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target nodes.
+     * @param k the maximum number of target nodes to be found.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a list of shortest {@link Path} objects to the nearest {@code k} target nodes (or to all target nodes
+     *         reachable from the source nodes if there are fewer) in increasing order of distance.
+     */
+    public static <T> List<Path<T>> findNearestPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, int k, SearchStats stats) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of targets: " + k + ".");
+        }
+
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var targets = new ArrayList<Path<T>>();
+        if (k > 0) {
+            run(graph, sources, targetPredicate, k, targets, new HashMap<>(), stats, null);
+        }
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return targets;
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) from the given source node to the nearest {@code k}
+     * target nodes identified by the given predicate within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target nodes.
+     * @param k the maximum number of target nodes to be found.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a list of shortest {@link Path} objects to the nearest {@code k}
+     *         target nodes in increasing order of distance. If the search is stopped, then the list contains the
+     *         target nodes reached so far, which are still the nearest ones.
+     */
+    public static <T> SearchResult<List<Path<T>>> findNearestPathsBounded(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, int k, SearchBudget budget, SearchStats stats) {
+        return findNearestPathsFromAnyBounded(graph, Stream.of(source), targetPredicate, k, budget, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) from any of the given source nodes to the nearest
+     * {@code k} target nodes identified by the given predicate within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target nodes.
+     * @param k the maximum number of target nodes to be found.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a list of shortest {@link Path} objects to the nearest {@code k}
+     *         target nodes in increasing order of distance. If the search is stopped, then the list contains the
+     *         target nodes reached so far, which are still the nearest ones.
+     */
+    public static <T> SearchResult<List<Path<T>>> findNearestPathsFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, Predicate<? super T> targetPredicate, int k, SearchBudget budget,
+            SearchStats stats) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of targets: " + k + ".");
+        }
+
+        var tracker = budget.start(stats);
+        var targets = new ArrayList<Path<T>>();
+        if (k > 0) {
+            run(graph, sources, targetPredicate, k, targets, new HashMap<>(), tracker.stats(), tracker);
+        }
+        return tracker.result(targets);
     }
 
     /**
@@ -105,42 +330,850 @@ public final class Dijkstra {
      * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
      */
     public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources) {
+        return findPathsFromAny(graph, sources, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node,
+     * and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source, SearchStats stats) {
+        return findPathsFromAny(graph, Stream.of(source), stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
+     * source nodes, and collects statistics about the search.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
+     */
+    public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var results = new HashMap<T, Path<T>>();
+        run(graph, sources, u -> false, 0, new ArrayList<>(), results, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return results;
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source node. If the search is stopped, then the map contains the nodes settled so
+     *         far, and the paths are still shortest paths.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsBounded(WeightedGraph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        return findPathsFromAnyBounded(graph, Stream.of(source), budget, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
+     * source nodes within the given budget.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source nodes. If the search is stopped, then the map contains the nodes settled so
+     *         far, and the paths are still shortest paths.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        var results = new HashMap<T, Path<T>>();
+        run(graph, sources, u -> false, 0, new ArrayList<>(), results, tracker.stats(), tracker);
+        return tracker.result(results);
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes reachable from the given
+     * source node. This method does not construct {@link Path} objects, so it is faster and requires much less memory
+     * for huge graphs than {@link #findPaths}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @return the {@link Distances} of the nodes reachable from the source node.
+     */
+    public static <T> Distances<T> findDistances(WeightedGraph<T> graph, T source) {
+        return findDistancesFromAny(graph, Stream.of(source));
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes reachable from any of the
+     * given source nodes. This method does not construct {@link Path} objects, so it is faster and requires much
+     * less memory for huge graphs than {@link #findPathsFromAny}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @return the {@link Distances} of the nodes reachable from the source nodes.
+     */
+    public static <T> Distances<T> findDistancesFromAny(WeightedGraph<T> graph, Stream<? extends T> sources) {
+        return findDistancesFromAny(graph, sources, null);
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes reachable from the given
+     * source node, and collects statistics about the search. This method does not construct {@link Path} objects,
+     * so it is faster and requires much less memory for huge graphs than {@link #findPaths}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return the {@link Distances} of the nodes reachable from the source node.
+     */
+    public static <T> Distances<T> findDistances(WeightedGraph<T> graph, T source, SearchStats stats) {
+        return findDistancesFromAny(graph, Stream.of(source), stats);
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes reachable from any of the
+     * given source nodes, and collects statistics about the search. This method does not construct {@link Path}
+     * objects, so it is faster and requires much less memory for huge graphs than {@link #findPathsFromAny}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return the {@link Distances} of the nodes reachable from the source nodes.
+     */
+    public static <T> Distances<T> findDistancesFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var index = new NodeIndex<T>();
+        var result = new Distances<>(index);
+        var heap = new IndexedMinHeap();
+        sources.forEach(s -> {
+            int id = index.getOrAdd(s);
+            if (!heap.contains(id)) {
+                heap.add(id, 0);
+                result.set(id, 0, -1);
+            }
+        });
+
+        while (!heap.isEmpty()) {
+            if (stats != null) {
+                stats.queueSize(heap.size());
+                stats.nodeExpanded();
+            }
+            int u = heap.poll();
+            long prevDist = result.getDist(u);
+            graph.forEachEdge(index.get(u), (node, weight) -> {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                int size = index.size();
+                int v = index.getOrAdd(node);
+                long dist = prevDist + weight;
+                if (v == size) {
+                    heap.add(v, dist);
+                    result.set(v, dist, u);
+                } else if (dist < result.getDist(v) && heap.contains(v)) {
+                    heap.decreaseKey(v, dist);
+                    result.set(v, dist, u);
+                }
+            });
+        }
+
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return result;
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate. The edge weights must be integers between {@code 0} and {@code maxWeight}
+     * (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Optional<Path<T>> findPath(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, int maxWeight) {
+        return findPathFromAny(graph, Stream.of(source), targetPredicate, maxWeight);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate. The edge weights must be integers between {@code 0} and
+     * {@code maxWeight} (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Optional<Path<T>> findPathFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, int maxWeight) {
+        return findPathFromAny(graph, sources, targetPredicate, maxWeight, null);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate, and collects statistics about the search. The edge weights must be integers
+     * between {@code 0} and {@code maxWeight} (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Optional<Path<T>> findPath(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, int maxWeight, SearchStats stats) {
+        return findPathFromAny(graph, Stream.of(source), targetPredicate, maxWeight, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate, and collects statistics about the search. The edge weights must
+     * be integers between {@code 0} and {@code maxWeight} (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source nodes.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Optional<Path<T>> findPathFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, int maxWeight, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        var result = runBuckets(graph, sources, targetPredicate, new HashMap<>(), maxWeight, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return result;
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node.
+     * The edge weights must be integers between {@code 0} and {@code maxWeight} (inclusive), see the
+     * {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source, int maxWeight) {
+        return findPathsFromAny(graph, Stream.of(source), maxWeight);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
+     * source nodes. The edge weights must be integers between {@code 0} and {@code maxWeight} (inclusive), see the
+     * {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            int maxWeight) {
+        return findPathsFromAny(graph, sources, maxWeight, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node,
+     * and collects statistics about the search. The edge weights must be integers between {@code 0} and
+     * {@code maxWeight} (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Map<T, Path<T>> findPaths(WeightedGraph<T> graph, T source, int maxWeight, SearchStats stats) {
+        return findPathsFromAny(graph, Stream.of(source), maxWeight, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
+     * source nodes, and collects statistics about the search. The edge weights must be integers between {@code 0} and
+     * {@code maxWeight} (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source nodes.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> Map<T, Path<T>> findPathsFromAny(WeightedGraph<T> graph, Stream<? extends T> sources,
+            int maxWeight, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
         var results = new HashMap<T, Path<T>>();
-        run(graph, sources, u -> false, results);
+        runBuckets(graph, sources, u -> false, results, maxWeight, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
         return results;
     }
 
-    private static <T> Optional<Path<T>> run(WeightedGraph<T> graph, Stream<? extends T> sources,
-            Predicate<? super T> targetPredicate, HashMap<T, Path<T>> results) {
-        var queue = new PriorityQueue<Path<T>>(Comparator.comparing(Path::dist));
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate within the given budget. The edge weights must be integers between {@code 0}
+     * and {@code maxWeight} (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source node or the search is stopped before
+     *         finding one.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathBounded(WeightedGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, int maxWeight, SearchBudget budget, SearchStats stats) {
+        return findPathFromAnyBounded(graph, Stream.of(source), targetPredicate, maxWeight, budget, stats);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from any of the given source nodes to
+     * a target node identified by the given predicate within the given budget. The edge weights must be integers
+     * between {@code 0} and {@code maxWeight} (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source nodes or the search is stopped before
+     *         finding one.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, Predicate<? super T> targetPredicate, int maxWeight, SearchBudget budget,
+            SearchStats stats) {
+        var tracker = budget.start(stats);
+        return tracker.result(runBuckets(graph, sources, targetPredicate, new HashMap<>(), maxWeight,
+                tracker.stats(), tracker));
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * within the given budget. The edge weights must be integers between {@code 0} and {@code maxWeight} (inclusive),
+     * see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source node. If the search is stopped, then the map contains the nodes settled so
+     *         far, and the paths are still shortest paths.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsBounded(WeightedGraph<T> graph, T source,
+            int maxWeight, SearchBudget budget, SearchStats stats) {
+        return findPathsFromAnyBounded(graph, Stream.of(source), maxWeight, budget, stats);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from any of the given
+     * source nodes within the given budget. The edge weights must be integers between {@code 0} and {@code maxWeight}
+     * (inclusive), see the {@linkplain Dijkstra class description}.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param sources the source nodes.
+     * @param maxWeight the maximum edge weight in the graph.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source nodes. If the search is stopped, then the map contains the nodes settled so
+     *         far, and the paths are still shortest paths.
+     * @throws IllegalArgumentException if an edge weight is negative or greater than {@code maxWeight}.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsFromAnyBounded(WeightedGraph<T> graph,
+            Stream<? extends T> sources, int maxWeight, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        var results = new HashMap<T, Path<T>>();
+        runBuckets(graph, sources, u -> false, results, maxWeight, tracker.stats(), tracker);
+        return tracker.result(results);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate in a {@link CompiledGraph}.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(CompiledGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate) {
+        return findPath(graph, source, targetPredicate, null);
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate in a {@link CompiledGraph}, and collects statistics about the search.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a shortest {@link Path} to the nearest target node or an empty optional if no target nodes are
+     *         reachable from the source node.
+     */
+    public static <T> Optional<Path<T>> findPath(CompiledGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        int target = run(graph, graph.indexOf(source), targetPredicate, dist, parent, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        @SuppressWarnings("unchecked")
+        var cache = (Path<T>[]) new Path<?>[graph.size()];
+        return target < 0 ? Optional.empty() : Optional.of(graph.toPath(target, dist, parent, cache));
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * in a {@link CompiledGraph}.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source) {
+        return findPaths(graph, source, null);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * in a {@link CompiledGraph}, and collects statistics about the search.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, parent, stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return graph.toPaths(dist, parent);
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes from the given source node
+     * in a {@link CompiledGraph}.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @return an array that contains the distance of each node indexed by the node ids. Unreachable nodes are
+     *         assigned {@link CompiledGraph#UNREACHABLE}.
+     */
+    public static <T> long[] findDistances(CompiledGraph<T> graph, T source) {
+        return findDistances(graph, source, null);
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes from the given source node
+     * in a {@link CompiledGraph}, and collects statistics about the search.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return an array that contains the distance of each node indexed by the node ids. Unreachable nodes are
+     *         assigned {@link CompiledGraph#UNREACHABLE}.
+     */
+    public static <T> long[] findDistances(CompiledGraph<T> graph, T source, SearchStats stats) {
+        long startNanos = stats != null ? System.nanoTime() : 0;
+        long[] dist = new long[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, new int[graph.size()], stats, null);
+        if (stats != null) {
+            stats.addElapsed(startNanos);
+        }
+        return dist;
+    }
+
+    /**
+     * Finds one of the shortest paths (in terms of the total edge weight) from the given source node to a target node
+     * identified by the given predicate in a {@link CompiledGraph} within the given budget.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param targetPredicate a predicate that returns true for the target node(s). It can accept multiple
+     *         nodes, in which case one of the shortest paths to one of the nearest target nodes is to be found.
+     *         For a single target node {@code t}, you can simply use {@code t::equals}.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a shortest {@link Path} to the nearest target node or an empty
+     *         optional if no target nodes are reachable from the source node or the search is stopped before
+     *         finding one.
+     */
+    public static <T> SearchResult<Optional<Path<T>>> findPathBounded(CompiledGraph<T> graph, T source,
+            Predicate<? super T> targetPredicate, SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        int target = run(graph, graph.indexOf(source), targetPredicate, dist, parent, tracker.stats(), tracker);
+        @SuppressWarnings("unchecked")
+        var cache = (Path<T>[]) new Path<?>[graph.size()];
+        var path = target < 0 ? Optional.<Path<T>>empty() : Optional.of(graph.toPath(target, dist, parent, cache));
+        return tracker.result(path);
+    }
+
+    /**
+     * Finds shortest paths (in terms of the total edge weight) to all nodes reachable from the given source node
+     * in a {@link CompiledGraph} within the given budget.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing a map that associates a shortest {@link Path} with each node
+     *         reachable from the source node. If the search is stopped, then the map contains the nodes settled so
+     *         far, and the paths are still shortest paths.
+     */
+    public static <T> SearchResult<Map<T, Path<T>>> findPathsBounded(CompiledGraph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, parent, tracker.stats(), tracker);
+        return tracker.result(graph.toPaths(dist, parent));
+    }
+
+    /**
+     * Calculates the distances (total edge weight along the shortest paths) of all nodes from the given source node
+     * in a {@link CompiledGraph} within the given budget.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @param budget the {@link SearchBudget} that limits the search.
+     * @param stats the {@link SearchStats} to be updated or {@code null}.
+     * @return a {@link SearchResult} containing an array that contains the distance of each node indexed by the
+     *         node ids. Unreachable nodes are assigned {@link CompiledGraph#UNREACHABLE}. If the search is stopped,
+     *         then the nodes not settled so far are also assigned {@code UNREACHABLE}.
+     */
+    public static <T> SearchResult<long[]> findDistancesBounded(CompiledGraph<T> graph, T source,
+            SearchBudget budget, SearchStats stats) {
+        var tracker = budget.start(stats);
+        long[] dist = new long[graph.size()];
+        run(graph, graph.indexOf(source), null, dist, new int[graph.size()], tracker.stats(), tracker);
+        return tracker.result(dist);
+    }
+
+    /**
+     * The nodes are mapped to dense ids, and an {@link IndexedMinHeap} of the ids is used as the priority queue.
+     * When a shorter path is found to a node, its key is decreased in the heap, so each node is contained in the heap
+     * at most once, and no outdated entries are polled.
+     * <p>
+     * The paths to the target nodes are collected in the given list in the order they are settled, and the
+     * algorithm terminates when {@code maxTargets} targets are found. Otherwise, the given map of results is filled.
+     */
+    private static <T> void run(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, int maxTargets, List<Path<T>> targets,
+            HashMap<T, Path<T>> results, SearchStats stats, SearchBudget.Tracker tracker) {
+        var index = new NodeIndex<T>();
+        var paths = new ArrayList<Path<T>>();
+        var heap = new IndexedMinHeap();
+        sources.forEach(s -> {
+            int id = index.getOrAdd(s);
+            if (id == paths.size()) {
+                paths.add(new Path<>(s, 0, null));
+                heap.add(id, 0);
+            }
+        });
+
+        while (!heap.isEmpty()) {
+            if (tracker != null && !tracker.expand()) {
+                break;
+            }
+            if (stats != null) {
+                stats.queueSize(heap.size());
+                stats.nodeExpanded();
+            }
+            var prev = paths.get(heap.poll());
+            if (targetPredicate.test(prev.end())) {
+                targets.add(prev);
+                if (targets.size() == maxTargets) {
+                    return;
+                }
+            }
+
+            graph.forEachEdge(prev.end(), (node, weight) -> {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                int id = index.getOrAdd(node);
+                long dist = prev.dist() + weight;
+                if (id == paths.size()) {
+                    paths.add(new Path<>(node, dist, prev));
+                    heap.add(id, dist);
+                } else if (dist < paths.get(id).dist() && heap.contains(id)) {
+                    paths.set(id, new Path<>(node, dist, prev));
+                    heap.decreaseKey(id, dist);
+                }
+            });
+        }
+
+        for (int id = 0; id < paths.size(); id++) {
+            if (!heap.contains(id)) {
+                results.put(paths.get(id).end(), paths.get(id));
+            }
+        }
+    }
+
+    /**
+     * Runs Dijkstra's algorithm on a compiled graph and fills the given distance and parent arrays. If the search is
+     * stopped by the tracker, then the nodes remaining in the heap are reset to {@link CompiledGraph#UNREACHABLE}.
+     *
+     * @return the id of the target node found or {@code -1}
+     */
+    private static <T> int run(CompiledGraph<T> graph, int source, Predicate<? super T> targetPredicate,
+            long[] dist, int[] parent, SearchStats stats, SearchBudget.Tracker tracker) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long[] weights = graph.weights();
+        Arrays.fill(dist, CompiledGraph.UNREACHABLE);
+
+        var heap = new IndexedMinHeap(graph.size());
+        dist[source] = 0;
+        parent[source] = -1;
+        heap.add(source, 0);
+        while (!heap.isEmpty()) {
+            if (tracker != null && !tracker.expand()) {
+                while (!heap.isEmpty()) {
+                    dist[heap.poll()] = CompiledGraph.UNREACHABLE;
+                }
+                break;
+            }
+            if (stats != null) {
+                stats.queueSize(heap.size());
+                stats.nodeExpanded();
+            }
+            int u = heap.poll();
+            if (targetPredicate != null && targetPredicate.test(graph.node(u))) {
+                return u;
+            }
+
+            for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
+                int v = targets[e];
+                long d = dist[u] + weights[e];
+                if (d < dist[v]) {
+                    if (dist[v] == CompiledGraph.UNREACHABLE) {
+                        heap.add(v, d);
+                    } else if (heap.contains(v)) {
+                        heap.decreaseKey(v, d);
+                    } else {
+                        continue;
+                    }
+                    dist[v] = d;
+                    parent[v] = u;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Dial's algorithm: a circular array of {@code maxWeight + 1} buckets is used as a monotone priority queue.
+     * Outdated entries are not removed from the buckets, they are just skipped when polled. The buckets are
+     * allocated when they are first used. For large {@code maxWeight} values, the heap-based search is run instead.
+     * <p>
+     * The given map of results also contains the tentative paths of the nodes in the queue. If the search is stopped
+     * by the tracker, then these are removed, so that only the settled nodes remain.
+     */
+    private static <T> Optional<Path<T>> runBuckets(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, HashMap<T, Path<T>> results, int maxWeight, SearchStats stats,
+            SearchBudget.Tracker tracker) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Negative maximum weight: " + maxWeight + ".");
+        } else if (maxWeight <= 1) {
+            return runZeroOne(graph, sources, targetPredicate, results, maxWeight, stats, tracker);
+        } else if (maxWeight > MAX_BUCKET_WEIGHT) {
+            var targets = new ArrayList<Path<T>>(1);
+            run(checkedWeights(graph, maxWeight), sources, targetPredicate, 1, targets, results, stats, tracker);
+            return targets.stream().findFirst();
+        }
+
+        int bucketCount = maxWeight + 1;
+        @SuppressWarnings("unchecked")
+        var buckets = (ArrayDeque<Path<T>>[]) new ArrayDeque<?>[bucketCount];
+        buckets[0] = new ArrayDeque<>();
         sources.forEach(s -> {
             var path = new Path<T>(s, 0, null);
             results.put(s, path);
-            queue.add(path);
+            buckets[0].add(path);
         });
+        long[] queueSize = { buckets[0].size() }; // only maintained if stats are collected
+
+        // New entries are always added to the next maxWeight + 1 buckets, so the search is finished when
+        // maxWeight + 1 consecutive buckets are empty
+        for (long dist = 0, emptyCount = 0; emptyCount < bucketCount; dist++) {
+            var bucket = buckets[(int) (dist % bucketCount)];
+            emptyCount = bucket == null || bucket.isEmpty() ? emptyCount + 1 : 0;
+            while (bucket != null && !bucket.isEmpty()) {
+                var prev = bucket.poll();
+                var prevNode = prev.end();
+                if (stats != null) {
+                    stats.queueSize(queueSize[0]--);
+                }
+                if (results.get(prevNode) != prev) {
+                    if (stats != null) {
+                        stats.stalePop();
+                    }
+                    continue;
+                }
+                if (tracker != null && !tracker.expand()) {
+                    return stop(results, prev);
+                }
+                if (stats != null) {
+                    stats.nodeExpanded();
+                }
+                if (targetPredicate.test(prevNode)) {
+                    return Optional.of(prev);
+                }
 
-        var decreased = new HashSet<T>();
-        var processed = new HashSet<T>();
-        while (!queue.isEmpty()) {
-            var prev = queue.poll();
+                graph.forEachEdge(prevNode, (node, weight) -> {
+                    var current = results.get(node);
+                    long newDist = prev.dist() + checkWeight(weight, maxWeight);
+                    if (stats != null) {
+                        stats.edgeScanned();
+                    }
+                    if (current == null || newDist < current.dist()) {
+                        var path = new Path<>(node, newDist, prev);
+                        results.put(node, path);
+                        int i = (int) (newDist % bucketCount);
+                        if (buckets[i] == null) {
+                            buckets[i] = new ArrayDeque<>();
+                        }
+                        buckets[i].add(path);
+                        if (stats != null) {
+                            queueSize[0]++;
+                        }
+                    }
+                });
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * 0-1 BFS: a deque is used as a priority queue, the end nodes of 0-weight edges are added to the front, while
+     * the end nodes of 1-weight edges are added to the back. Outdated entries are just skipped when polled.
+     */
+    private static <T> Optional<Path<T>> runZeroOne(WeightedGraph<T> graph, Stream<? extends T> sources,
+            Predicate<? super T> targetPredicate, HashMap<T, Path<T>> results, int maxWeight, SearchStats stats,
+            SearchBudget.Tracker tracker) {
+        var deque = new ArrayDeque<Path<T>>();
+        sources.forEach(s -> {
+            var path = new Path<T>(s, 0, null);
+            results.put(s, path);
+            deque.add(path);
+        });
+
+        while (!deque.isEmpty()) {
+            if (stats != null) {
+                stats.queueSize(deque.size());
+            }
+            var prev = deque.poll();
             var prevNode = prev.end();
+            if (results.get(prevNode) != prev) {
+                if (stats != null) {
+                    stats.stalePop();
+                }
+                continue;
+            }
+            if (tracker != null && !tracker.expand()) {
+                return stop(results, prev);
+            }
+            if (stats != null) {
+                stats.nodeExpanded();
+            }
             if (targetPredicate.test(prevNode)) {
                 return Optional.of(prev);
             }
-            if (decreased.contains(prevNode) && !processed.add(prevNode)) {
-                continue;
-            }
 
-            graph.edges(prevNode).forEach(edge -> {
-                var node = edge.end();
+            graph.forEachEdge(prevNode, (node, weight) -> {
+                checkWeight(weight, maxWeight);
+                if (stats != null) {
+                    stats.edgeScanned();
+                }
                 var current = results.get(node);
-                long dist = prev.dist() + edge.weight();
-                if (current == null || dist < current.dist()) {
-                    var path = new Path<>(node, dist, prev);
+                long newDist = prev.dist() + weight;
+                if (current == null || newDist < current.dist()) {
+                    var path = new Path<>(node, newDist, prev);
                     results.put(node, path);
-                    queue.add(path);
-                    if (current != null) {
-                        decreased.add(node);
+                    if (weight == 0) {
+                        deque.addFirst(path);
+                    } else {
+                        deque.addLast(path);
                     }
                 }
             });
@@ -149,4 +1182,38 @@ public final class Dijkstra {
         return Optional.empty();
     }
 
+    /**
+     * Removes the tentative paths from the results when a bucket queue search is stopped before expanding the given
+     * path. Its distance is the minimum distance in the queue, so the paths not longer than it are final.
+     */
+    private static <T> Optional<Path<T>> stop(HashMap<T, Path<T>> results, Path<T> next) {
+        results.values().removeIf(p -> p.dist() > next.dist());
+        return Optional.empty();
+    }
+
+    /**
+     * Returns a view of the given graph that checks the edge weights against {@code maxWeight}.
+     */
+    private static <T> WeightedGraph<T> checkedWeights(WeightedGraph<T> graph, int maxWeight) {
+        return new WeightedGraph<>() {
+            @Override
+            public Stream<Edge<T>> edges(T node) {
+                return graph.edges(node).peek(e -> checkWeight(e.weight(), maxWeight));
+            }
+
+            @Override
+            public void forEachEdge(T node, ObjLongConsumer<? super T> action) {
+                graph.forEachEdge(node, (end, weight) -> action.accept(end, checkWeight(weight, maxWeight)));
+            }
+        };
+    }
+
+    private static long checkWeight(long weight, int maxWeight) {
+        if (weight < 0 || weight > maxWeight) {
+            throw new IllegalArgumentException(
+                    String.format("Edge weight out of range [0..%d]: %d.", maxWeight, weight));
+        }
+        return weight;
+    }
+
 }
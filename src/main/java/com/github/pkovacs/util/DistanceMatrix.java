@@ -0,0 +1,96 @@
+package com.github.pkovacs.util;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Represents the pairwise distances between certain nodes of a graph, as calculated by {@link AllPairs}.
+ * <p>
+ * The nodes are numbered by dense {@code int} ids ({@code 0, 1, ..., n-1}) in the order they were given, and the
+ * distances are stored in a single {@code long[]} array in row-major order. Unreachable pairs are assigned
+ * {@link CompiledGraph#UNREACHABLE}.
+ *
+ * @param <T> the type of nodes
+ * @see AllPairs
+ */
+public final class DistanceMatrix<T> {
+
+    private final NodeIndex<T> index;
+    private final long[] dist;
+
+    DistanceMatrix(NodeIndex<T> index, long[] dist) {
+        this.index = index;
+        this.dist = dist;
+    }
+
+    /**
+     * Returns the number of nodes.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the node with the given id.
+     *
+     * @throws IndexOutOfBoundsException if the id is out of range
+     */
+    public T node(int id) {
+        return index.get(Objects.checkIndex(id, size()));
+    }
+
+    /**
+     * Returns the id of the given node or {@code -1} if this matrix does not contain the node.
+     */
+    public int id(T node) {
+        return index.indexOf(node);
+    }
+
+    /**
+     * Returns the list of the nodes (in the order of their ids).
+     */
+    public List<T> nodes() {
+        return IntStream.range(0, size()).mapToObj(index::get).toList();
+    }
+
+    /**
+     * Returns the distance of the node with id {@code toId} from the node with id {@code fromId} or
+     * {@link CompiledGraph#UNREACHABLE} if it is not reachable. (This method has a different name than
+     * {@link #dist(Object, Object)}, so that the two cannot be mixed up for integer nodes.)
+     *
+     * @throws IndexOutOfBoundsException if an id is out of range
+     */
+    public long distOfIds(int fromId, int toId) {
+        int n = size();
+        return dist[Objects.checkIndex(fromId, n) * n + Objects.checkIndex(toId, n)];
+    }
+
+    /**
+     * Returns the distance of the given target node from the given source node or {@link CompiledGraph#UNREACHABLE}
+     * if it is not reachable.
+     *
+     * @throws IllegalArgumentException if this matrix does not contain one of the given nodes
+     */
+    public long dist(T from, T to) {
+        return dist[indexOf(from) * size() + indexOf(to)];
+    }
+
+    /**
+     * Returns true if the given target node is reachable from the given source node.
+     *
+     * @throws IllegalArgumentException if this matrix does not contain one of the given nodes
+     */
+    public boolean isReachable(T from, T to) {
+        return dist(from, to) != CompiledGraph.UNREACHABLE;
+    }
+
+    private int indexOf(T node) {
+        int id = index.indexOf(node);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown node: " + node + ".");
+        }
+        return id;
+    }
+
+}
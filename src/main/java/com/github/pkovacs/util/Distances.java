@@ -0,0 +1,142 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents the distances of all nodes reachable from one or more source nodes of a graph, as calculated by
+ * {@link Bfs#findDistances} or {@link Dijkstra#findDistances}.
+ * <p>
+ * The reachable nodes are numbered by dense {@code int} ids in the order they were discovered, and the distances and
+ * the shortest path tree are stored in primitive arrays indexed by these ids. {@link Path} objects are only
+ * constructed on demand for the nodes that are actually queried, so this class requires much less memory for huge
+ * graphs than the map of paths returned by {@link Bfs#findPaths} or {@link Dijkstra#findPaths}.
+ *
+ * @param <T> the type of nodes
+ * @see CellDistances
+ */
+public final class Distances<T> {
+
+    private final NodeIndex<T> index;
+    private long[] dist = new long[16];
+    private int[] parent = new int[16];
+
+    /**
+     * Creates a new instance for the nodes of the given index. The distances and parents must be set by the
+     * algorithm for each node of the index using {@link #set}.
+     */
+    Distances(NodeIndex<T> index) {
+        this.index = index;
+    }
+
+    /**
+     * Sets the distance and the parent id of the node with the given id. The parent of the source nodes is
+     * {@code -1}.
+     */
+    void set(int id, long dist, int parent) {
+        if (id >= this.dist.length) {
+            int capacity = Math.max(id + 1, 2 * this.dist.length);
+            this.dist = Arrays.copyOf(this.dist, capacity);
+            this.parent = Arrays.copyOf(this.parent, capacity);
+        }
+        this.dist[id] = dist;
+        this.parent[id] = parent;
+    }
+
+    /**
+     * Returns the distance of the node with the given id.
+     */
+    long getDist(int id) {
+        return dist[id];
+    }
+
+    /**
+     * Returns the number of nodes reachable from the source node(s), including the source nodes themselves.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns true if the given node is reachable from the source node(s).
+     */
+    public boolean isReachable(T node) {
+        return index.indexOf(node) >= 0;
+    }
+
+    /**
+     * Returns the distance of the given node from the nearest source node or {@code -1} if the node is
+     * not reachable.
+     */
+    public long dist(T node) {
+        int id = index.indexOf(node);
+        return id >= 0 ? dist[id] : -1;
+    }
+
+    /**
+     * Returns the previous node along the shortest path to the given node (i.e., its parent in the shortest path
+     * tree) or an empty optional if the node is a source node or it is not reachable.
+     */
+    public Optional<T> parent(T node) {
+        int id = index.indexOf(node);
+        return id >= 0 && parent[id] >= 0 ? Optional.of(index.get(parent[id])) : Optional.empty();
+    }
+
+    /**
+     * Returns one of the shortest paths from the nearest source node to the given node or an empty optional if
+     * the node is not reachable. The returned {@link Path} is constructed on demand.
+     */
+    public Optional<Path<T>> path(T node) {
+        int id = index.indexOf(node);
+        return id >= 0 ? Optional.of(toPath(id)) : Optional.empty();
+    }
+
+    private Path<T> toPath(int id) {
+        // Collect the ids iteratively to avoid deep recursion for long paths
+        int[] chain = new int[16];
+        int size = 0;
+        for (int v = id; v >= 0; v = parent[v]) {
+            if (size == chain.length) {
+                chain = Arrays.copyOf(chain, 2 * size);
+            }
+            chain[size++] = v;
+        }
+
+        Path<T> path = null;
+        while (size > 0) {
+            int v = chain[--size];
+            path = new Path<>(index.get(v), dist[v], path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the maximum distance among the reachable nodes or {@code -1} if there are no reachable nodes.
+     */
+    public long maxDist() {
+        return LongStream.of(dist).limit(size()).max().orElse(-1);
+    }
+
+    /**
+     * Returns a stream of the nodes reachable from the source node(s) in the order they were discovered by
+     * the algorithm.
+     */
+    public Stream<T> nodes() {
+        return IntStream.range(0, size()).mapToObj(index::get);
+    }
+
+    /**
+     * Performs the given action for each reachable node and its distance in the order the nodes were discovered by
+     * the algorithm.
+     */
+    public void forEach(ObjLongConsumer<? super T> action) {
+        for (int id = 0; id < size(); id++) {
+            action.accept(index.get(id), dist[id]);
+        }
+    }
+
+}
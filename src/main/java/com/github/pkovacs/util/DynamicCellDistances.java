@@ -0,0 +1,289 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * Maintains the distances of the cells of an {@link AbstractTable} from the nearest source cell while the values of
+ * the cells change. Entering a cell costs a positive weight calculated from its value by a cost function, or the
+ * cell cannot be entered if the cost function returns a negative value. The source cells are always included.
+ * <p>
+ * The distances are calculated by a variant of
+ * <a href="https://en.wikipedia.org/wiki/Lifelong_Planning_A*">Lifelong Planning A*</a> (LPA*) that has no heuristic
+ * and no target cell, i.e., it keeps the distances of all cells up to date. After changing the values of some cells
+ * in the table (e.g., by {@link IntTable#set(Pos, int)}), {@link #update(Pos)} has to be called for each changed cell.
+ * The distances are repaired lazily when they are queried next time, and the amount of work is proportional to the
+ * number of cells whose distance is affected by the changes (rather than the size of the table).
+ * <p>
+ * The distances and the priority queue are stored in arrays indexed by the row-major index of the cells
+ * (i.e., {@code y * width + x}). {@link Pos} and {@link Path} objects are only created on demand for the cells that
+ * are actually queried.
+ *
+ * @param <V> the type of the values associated with the cells of the table
+ * @see AbstractTable#dynamicDistances(Pos, ToLongFunction)
+ * @see CellDistances
+ */
+public final class DynamicCellDistances<V> {
+
+    private static final long INFINITY = Long.MAX_VALUE;
+
+    private final AbstractTable<V> table;
+    private final ToLongFunction<? super V> costFunction;
+    private final int width;
+    private final int height;
+    private final boolean[] source;
+    private final long[] cost; // the cost of entering each cell or -1 if the cell cannot be entered
+    private final long[] dist; // the current distance (g-value) of each cell
+    private final long[] rhs; // the one-step lookahead distance of each cell based on the distances of its neighbors
+    private final IndexedMinHeap heap; // the inconsistent cells (dist != rhs)
+    private final int[] neighbors = new int[4];
+
+    DynamicCellDistances(AbstractTable<V> table, Collection<Pos> sources, ToLongFunction<? super V> costFunction) {
+        this.table = table;
+        this.costFunction = costFunction;
+        width = table.width();
+        height = table.height();
+
+        int size = width * height;
+        source = new boolean[size];
+        cost = new long[size];
+        dist = new long[size];
+        rhs = new long[size];
+        heap = new IndexedMinHeap(size);
+        Arrays.fill(dist, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        for (int i = 0; i < size; i++) {
+            cost[i] = costOf(i);
+        }
+        for (var s : sources) {
+            int i = index(s.xInt(), s.yInt());
+            source[i] = true;
+            rhs[i] = 0;
+            heap.update(i, 0);
+        }
+    }
+
+    /**
+     * Returns the width of the underlying table.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the underlying table.
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Notifies this object that the value of the given cell has changed. The distances are repaired when they are
+     * queried next time.
+     *
+     * @throws IllegalArgumentException if the table does not contain the given cell or the cost function returns
+     *         zero for its new value
+     */
+    public void update(Pos pos) {
+        update(pos.xInt(), pos.yInt());
+    }
+
+    /**
+     * Notifies this object that the value of the given cell has changed. The distances are repaired when they are
+     * queried next time.
+     *
+     * @throws IllegalArgumentException if the table does not contain the given cell or the cost function returns
+     *         zero for its new value
+     */
+    public void update(int x, int y) {
+        int i = index(x, y);
+        long newCost = costOf(i);
+        if (newCost != cost[i]) {
+            cost[i] = newCost;
+            updateRhs(i);
+        }
+    }
+
+    /**
+     * Returns true if the given cell is reachable from the source cell(s).
+     */
+    public boolean isReachable(Pos pos) {
+        return isReachable(pos.xInt(), pos.yInt());
+    }
+
+    /**
+     * Returns true if the given cell is reachable from the source cell(s).
+     */
+    public boolean isReachable(int x, int y) {
+        return dist(x, y) >= 0;
+    }
+
+    /**
+     * Returns the distance of the given cell from the nearest source cell or {@code -1} if the cell is
+     * not reachable.
+     */
+    public long dist(Pos pos) {
+        return dist(pos.xInt(), pos.yInt());
+    }
+
+    /**
+     * Returns the distance of the given cell from the nearest source cell or {@code -1} if the cell is
+     * not reachable.
+     */
+    public long dist(int x, int y) {
+        if (!table.containsCell(x, y)) {
+            return -1;
+        }
+        repair();
+        long d = dist[y * width + x];
+        return d == INFINITY ? -1 : d;
+    }
+
+    /**
+     * Returns one of the shortest paths from the nearest source cell to the given cell or an empty optional if
+     * the cell is not reachable. The returned {@link Path} is constructed on demand.
+     */
+    public Optional<Path<Pos>> path(Pos pos) {
+        if (!isReachable(pos)) {
+            return Optional.empty();
+        }
+
+        // Collect the cell indices backwards: the previous cell is a neighbor whose distance is smaller exactly by
+        // the cost of the current cell (the costs are positive, so this terminates at a source cell)
+        var chain = new int[16];
+        int length = 0;
+        for (int i = pos.yInt() * width + pos.xInt(); ; ) {
+            if (length == chain.length) {
+                chain = Arrays.copyOf(chain, 2 * length);
+            }
+            chain[length++] = i;
+            if (source[i]) {
+                break;
+            }
+            int count = neighbors(i);
+            for (int k = 0; k < count; k++) {
+                int j = neighbors[k];
+                if (dist[j] != INFINITY && dist[j] + cost[i] == dist[i]) {
+                    i = j;
+                    break;
+                }
+            }
+        }
+
+        Path<Pos> path = null;
+        for (int k = length - 1; k >= 0; k--) {
+            int j = chain[k];
+            path = new Path<>(new Pos(j % width, j / width), dist[j], path);
+        }
+        return Optional.of(path);
+    }
+
+    /**
+     * Returns the number of cells reachable from the source cell(s), including the source cells themselves.
+     */
+    public int count() {
+        repair();
+        return (int) Arrays.stream(dist).filter(d -> d != INFINITY).count();
+    }
+
+    /**
+     * Processes the inconsistent cells in increasing order of their keys until all cells become consistent.
+     */
+    private void repair() {
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            int count = neighbors(u);
+            if (dist[u] > rhs[u]) {
+                // Overconsistent cell: its distance is decreased, which might decrease the rhs of its neighbors
+                dist[u] = rhs[u];
+                for (int k = 0; k < count; k++) {
+                    int v = neighbors[k];
+                    if (!source[v] && cost[v] >= 0 && dist[u] + cost[v] < rhs[v]) {
+                        rhs[v] = dist[u] + cost[v];
+                        updateHeap(v);
+                    }
+                }
+            } else {
+                // Underconsistent cell: its distance is invalidated, so the neighbors whose rhs is based on it
+                // have to be recalculated
+                long oldDist = dist[u];
+                dist[u] = INFINITY;
+                updateHeap(u);
+                for (int k = 0; k < count; k++) {
+                    int v = neighbors[k];
+                    if (!source[v] && cost[v] >= 0 && rhs[v] == oldDist + cost[v]) {
+                        updateRhs(v);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalculates the rhs of the given cell based on the distances of its neighbors.
+     */
+    private void updateRhs(int v) {
+        if (!source[v]) {
+            long min = INFINITY;
+            if (cost[v] >= 0) {
+                // The neighbors are checked directly, because this method is called while iterating over the
+                // neighbors array
+                int x = v % width;
+                min = Math.min(x > 0 ? dist[v - 1] : INFINITY, x < width - 1 ? dist[v + 1] : INFINITY);
+                min = Math.min(min, v >= width ? dist[v - width] : INFINITY);
+                min = Math.min(min, v + width < dist.length ? dist[v + width] : INFINITY);
+            }
+            rhs[v] = min == INFINITY ? INFINITY : min + cost[v];
+        }
+        updateHeap(v);
+    }
+
+    private void updateHeap(int v) {
+        if (dist[v] != rhs[v]) {
+            heap.update(v, Math.min(dist[v], rhs[v]));
+        } else {
+            heap.remove(v);
+        }
+    }
+
+    /**
+     * Collects the indices of the neighbors of the given cell into {@link #neighbors} in lexicographical order.
+     *
+     * @return the number of neighbors
+     */
+    private int neighbors(int i) {
+        int x = i % width;
+        int count = 0;
+        if (x > 0) {
+            neighbors[count++] = i - 1;
+        }
+        if (i >= width) {
+            neighbors[count++] = i - width;
+        }
+        if (i + width < cost.length) {
+            neighbors[count++] = i + width;
+        }
+        if (x < width - 1) {
+            neighbors[count++] = i + 1;
+        }
+        return count;
+    }
+
+    private long costOf(int i) {
+        long c = costFunction.applyAsLong(table.get0(i % width, i / width));
+        if (c == 0) {
+            throw new IllegalArgumentException("Zero cost of cell " + new Pos(i % width, i / width) + ".");
+        }
+        return Math.max(c, -1);
+    }
+
+    private int index(int x, int y) {
+        if (!table.containsCell(x, y)) {
+            throw new IllegalArgumentException("The table does not contain cell " + new Pos(x, y) + ".");
+        }
+        return y * width + x;
+    }
+
+}
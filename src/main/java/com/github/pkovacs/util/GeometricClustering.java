@@ -0,0 +1,313 @@
+package com.github.pkovacs.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implements single-linkage clustering of a set of points with integer coordinates based on their squared Euclidean
+ * distances, without materializing all {@code n * (n - 1) / 2} pairs of points. It is equivalent to running
+ * Kruskal's algorithm on the complete graph of the points: the pairs are processed in increasing order of their
+ * distance, and the clusters of the points are merged.
+ * <p>
+ * The points are identified by their indices {@code 0, 1, ..., n-1} in the given list, and the pairs are totally
+ * ordered by {@code (distSq, i, j)}, where {@code i < j} are the indices of the points. The points are stored in
+ * a {@link KdTree}, which supports two operations.
+ * <ul>
+ * <li>
+ *     {@link #closestPairs()}: a lazy stream of all pairs in increasing order. Each point has a lazy iterator of
+ *     its neighbors with larger indices in increasing order of distance (best-first traversal of the k-d tree), and
+ *     the heads of these iterators are merged by a priority queue. Only the pairs that are actually consumed
+ *     (and at most one additional pair per point) are generated.
+ * </li>
+ * <li>
+ *     {@link #merges()}: the edges of the minimum spanning tree in Kruskal order (the pairs whose processing merges
+ *     two clusters). They are calculated by Boruvka's algorithm: in each round, the nearest point outside its own
+ *     cluster is found for each point by a k-d tree search that skips the subtrees of the same cluster, and the
+ *     clusters are merged along the shortest outgoing edges. This takes {@code O(log n)} rounds.
+ * </li>
+ * </ul>
+ *
+ * @see KdTree
+ * @see UnionFind
+ */
+public final class GeometricClustering {
+
+    private final KdTree<?> tree;
+    private List<Pair> merges;
+
+    private GeometricClustering(KdTree<?> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Creates a clustering engine for the given 2D points.
+     */
+    public static GeometricClustering ofPositions(List<Pos> points) {
+        return new GeometricClustering(KdTree.ofPositions(points));
+    }
+
+    /**
+     * Creates a clustering engine for the given 3D points.
+     */
+    public static GeometricClustering ofVectors(List<Vector> points) {
+        return new GeometricClustering(KdTree.ofVectors(points));
+    }
+
+    /**
+     * Creates a clustering engine for the given D-dimensional points.
+     *
+     * @throws IllegalArgumentException if the points have different dimensions
+     */
+    public static GeometricClustering ofVectorDs(List<VectorD> points) {
+        return new GeometricClustering(KdTree.ofVectorDs(points));
+    }
+
+    /**
+     * Returns the number of points.
+     */
+    public int size() {
+        return tree.n;
+    }
+
+    /**
+     * Returns the squared Euclidean distance between the given points.
+     */
+    public long distSq(int i, int j) {
+        return tree.distSq(i, j);
+    }
+
+    /**
+     * Returns a lazy stream of all pairs of points in increasing order of {@code (distSq, i, j)}.
+     */
+    public Stream<Pair> closestPairs() {
+        var iterator = new Iterator<Pair>() {
+
+            final PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparingLong((Cursor c) -> c.dist)
+                    .thenComparingInt(c -> c.i).thenComparingInt(c -> c.j));
+
+            {
+                for (int i = 0; i < tree.n; i++) {
+                    var iterator = tree.new NearestIterator(tree.coords(i), i, KdTree.Metric.SQUARED_EUCLIDEAN);
+                    var cursor = new Cursor(iterator, i);
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Pair next() {
+                var cursor = queue.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                var pair = new Pair(cursor.i, cursor.j, cursor.dist);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+                return pair;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns the clusters after processing the first {@code k} {@linkplain #closestPairs() closest pairs} (or all
+     * pairs if there are fewer) in a new {@link UnionFind}.
+     */
+    public UnionFind afterClosestPairs(long k) {
+        var clusters = new UnionFind(size());
+        closestPairs().limit(k).forEach(p -> clusters.union(p.i, p.j));
+        return clusters;
+    }
+
+    /**
+     * Returns the pairs whose processing merges two clusters, i.e., the edges of the minimum spanning tree of the
+     * points in increasing order of {@code (distSq, i, j)} (Kruskal order). The list contains {@code n - 1} pairs
+     * for {@code n > 0} points. It is calculated on demand and cached.
+     */
+    public List<Pair> merges() {
+        if (merges == null) {
+            // Lazy load: run Boruvka's algorithm
+            merges = boruvka();
+        }
+        return merges;
+    }
+
+    /**
+     * Returns the clusters after the first {@code k} {@linkplain #merges() merges} (or all merges if there are
+     * fewer) in a new {@link UnionFind}.
+     */
+    public UnionFind afterMerges(int k) {
+        var clusters = new UnionFind(size());
+        merges().stream().limit(k).forEach(p -> clusters.union(p.i, p.j));
+        return clusters;
+    }
+
+    private List<Pair> boruvka() {
+        int n = tree.n;
+        var clusters = new UnionFind(n);
+        var result = new ArrayList<Pair>(Math.max(n - 1, 0));
+        int[] comp = new int[n];
+        int[] label = new int[n];
+        long[] bestDist = new long[n];
+        int[] bestI = new int[n];
+        int[] bestJ = new int[n];
+        var search = new OutsideSearch(comp, label);
+
+        while (clusters.componentCount() > 1) {
+            for (int i = 0; i < n; i++) {
+                comp[i] = clusters.find(i);
+                bestDist[i] = Long.MAX_VALUE;
+            }
+            labelNodes(0, n, comp, label);
+
+            // Find the shortest outgoing pair of each cluster (with respect to the total order of the pairs)
+            for (int i = 0; i < n; i++) {
+                int c = comp[i];
+                int j = search.find(i, bestDist[c]);
+                if (j < 0) {
+                    continue;
+                }
+                int a = Math.min(i, j);
+                int b = Math.max(i, j);
+                long d = search.bestDist;
+                if (d < bestDist[c] || d == bestDist[c] && (a < bestI[c] || a == bestI[c] && b < bestJ[c])) {
+                    bestDist[c] = d;
+                    bestI[c] = a;
+                    bestJ[c] = b;
+                }
+            }
+
+            for (int c = 0; c < n; c++) {
+                if (comp[c] == c && bestDist[c] != Long.MAX_VALUE && clusters.union(bestI[c], bestJ[c])) {
+                    result.add(new Pair(bestI[c], bestJ[c], bestDist[c]));
+                }
+            }
+        }
+
+        result.sort(Comparator.comparingLong(Pair::distSq).thenComparingInt(Pair::i).thenComparingInt(Pair::j));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Sets the label of each node: the common cluster of its points or {@code -1} if they belong to different
+     * clusters.
+     *
+     * @return the label of the node {@code [lo, hi)} or {@code -2} if it is empty
+     */
+    private int labelNodes(int lo, int hi, int[] comp, int[] label) {
+        if (lo >= hi) {
+            return -2;
+        }
+        int mid = (lo + hi) >>> 1;
+        int c = comp[tree.perm[mid]];
+        int left = labelNodes(lo, mid, comp, label);
+        int right = labelNodes(mid + 1, hi, comp, label);
+        label[mid] = (left == -2 || left == c) && (right == -2 || right == c) ? c : -1;
+        return label[mid];
+    }
+
+    /**
+     * Finds the nearest point outside the cluster of a given point (ties are broken by the point indices) by
+     * a depth-first search in the k-d tree that skips the subtrees of the same cluster and the subtrees that are
+     * farther than the best point found so far.
+     */
+    private final class OutsideSearch {
+
+        final int[] comp;
+        final int[] label;
+        int query;
+        long bestDist;
+        int best;
+
+        OutsideSearch(int[] comp, int[] label) {
+            this.comp = comp;
+            this.label = label;
+        }
+
+        /**
+         * Returns the nearest point outside the cluster of the given point within the given distance bound or
+         * {@code -1} if there is no such point.
+         */
+        int find(int i, long bound) {
+            query = i;
+            bestDist = bound;
+            best = -1;
+            visit(0, tree.n);
+            return best;
+        }
+
+        private void visit(int lo, int hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lo >= hi || label[mid] == comp[query] || tree.boxDistSq(query, mid) > bestDist) {
+                return;
+            }
+
+            int p = tree.perm[mid];
+            if (comp[p] != comp[query]) {
+                long d = tree.distSq(query, p);
+                if (d < bestDist || d == bestDist && (best < 0 || p < best)) {
+                    bestDist = d;
+                    best = p;
+                }
+            }
+
+            // Visit the subtree on the side of the query point first
+            int k = tree.splitDim[mid];
+            if (tree.coord(query, k) < tree.coord(p, k)) {
+                visit(lo, mid);
+                visit(mid + 1, hi);
+            } else {
+                visit(mid + 1, hi);
+                visit(lo, mid);
+            }
+        }
+
+    }
+
+    /**
+     * The state of the lazy iterator of the neighbors of point {@code i} in {@link #closestPairs()}.
+     */
+    private static final class Cursor {
+
+        final KdTree<?>.NearestIterator iterator;
+        final int i;
+        int j;
+        long dist;
+
+        Cursor(KdTree<?>.NearestIterator iterator, int i) {
+            this.iterator = iterator;
+            this.i = i;
+        }
+
+        boolean advance() {
+            j = iterator.next();
+            dist = iterator.dist();
+            return j >= 0;
+        }
+
+    }
+
+    /**
+     * A pair of points {@code i < j} and their squared Euclidean distance.
+     */
+    public record Pair(int i, int j, long distSq) {}
+
+}
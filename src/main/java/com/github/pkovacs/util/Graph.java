@@ -2,7 +2,9 @@ package com.github.pkovacs.util;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.ToLongBiFunction;
@@ -36,6 +38,17 @@ public interface Graph<T> {
      */
     Stream<T> neighbors(T node);
 
+    /**
+     * Performs the given action for each neighbor of the given node in the same order as {@link #neighbors}.
+     * <p>
+     * The default implementation simply consumes the stream returned by {@link #neighbors}, but the graphs created
+     * by the factory methods and combinators of this interface override it to avoid constructing stream pipelines,
+     * which is significant for nodes with few neighbors. The search algorithms use this method.
+     */
+    default void forEachNeighbor(T node, Consumer<? super T> action) {
+        neighbors(node).forEach(action);
+    }
+
     /**
      * Wraps the given neighbor provider function as a graph.
      * <p>
@@ -50,21 +63,65 @@ public interface Graph<T> {
      * Wraps the given map as a graph. Changes in the map are reflected in the returned graph.
      */
     static <T> Graph<T> of(Map<? super T, ? extends Collection<T>> map) {
-        return u -> map.get(u).stream();
+        return of(u -> map.get(u).stream(), (u, action) -> map.get(u).forEach(action));
+    }
+
+    /**
+     * Creates a graph from the given neighbor provider function and the given function that performs an action for
+     * each neighbor of a node. The two functions must be consistent: they must provide the same neighbors in the
+     * same order. The latter one is used to implement {@link #forEachNeighbor}.
+     */
+    static <T> Graph<T> of(Function<? super T, ? extends Stream<T>> neighborProvider,
+            BiConsumer<? super T, Consumer<? super T>> neighborIterator) {
+        return new Graph<>() {
+            @Override
+            public Stream<T> neighbors(T node) {
+                return neighborProvider.apply(node);
+            }
+
+            @Override
+            public void forEachNeighbor(T node, Consumer<? super T> action) {
+                neighborIterator.accept(node, action);
+            }
+        };
     }
 
     /**
      * Restricts this graph to only contain the nodes that satisfy the given predicate.
      */
     default Graph<T> filterNodes(Predicate<? super T> nodeFilter) {
-        return u -> neighbors(u).filter(nodeFilter);
+        return of(u -> neighbors(u).filter(nodeFilter), (u, action) -> forEachNeighbor(u, v -> {
+            if (nodeFilter.test(v)) {
+                action.accept(v);
+            }
+        }));
     }
 
     /**
      * Restricts this graph to only contain the edges between pairs of nodes that satisfy the given predicate.
      */
     default Graph<T> filterEdges(BiPredicate<? super T, ? super T> edgeFilter) {
-        return u -> neighbors(u).filter(v -> edgeFilter.test(u, v));
+        return of(u -> neighbors(u).filter(v -> edgeFilter.test(u, v)), (u, action) -> forEachNeighbor(u, v -> {
+            if (edgeFilter.test(u, v)) {
+                action.accept(v);
+            }
+        }));
+    }
+
+    /**
+     * Compiles the part of this graph that is reachable from the given source node into a {@link CompiledGraph}.
+     * Each edge is assigned weight 1.
+     */
+    default CompiledGraph<T> compile(T source) {
+        return compileFromAny(Stream.of(source));
+    }
+
+    /**
+     * Compiles the part of this graph that is reachable from any of the given source nodes into a
+     * {@link CompiledGraph}. Each edge is assigned weight 1.
+     */
+    default CompiledGraph<T> compileFromAny(Stream<? extends T> sources) {
+        return CompiledGraph.of(weighted((u, v) -> 1), sources);
     }
 
     /**
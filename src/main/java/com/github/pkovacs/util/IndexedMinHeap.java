@@ -0,0 +1,253 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A min-priority queue of {@code int} ids (e.g., dense node ids) with {@code long} keys, which supports changing
+ * the key of an element. It is implemented as a 4-ary heap with a position index, so each element is contained
+ * at most once, and the size of the heap never exceeds the number of distinct ids.
+ * <p>
+ * Time complexity: {@link #add}, {@link #decreaseKey}, {@link #poll}, {@link #remove}: O(log n);
+ * {@link #contains}, {@link #key}, {@link #peek}: O(1).
+ * <p>
+ * The ids must be non-negative. The internal arrays are extended automatically as needed, so the ids should be
+ * dense (that is, close to {@code 0, 1, 2, ...}) for efficient memory usage.
+ *
+ * @see Dijkstra
+ */
+public final class IndexedMinHeap {
+
+    private static final int D = 4;
+
+    private int[] heap; // heap position -> id
+    private long[] keys; // heap position -> key
+    private int[] pos; // id -> heap position or -1 if not contained
+    private int size;
+
+    /**
+     * Creates a new empty heap.
+     */
+    public IndexedMinHeap() {
+        this(16);
+    }
+
+    /**
+     * Creates a new empty heap with the given initial capacity (the expected number of distinct ids).
+     */
+    public IndexedMinHeap(int capacity) {
+        capacity = Math.max(capacity, 1);
+        heap = new int[capacity];
+        keys = new long[capacity];
+        pos = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    /**
+     * Returns true if this heap is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of elements in this heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this heap contains the given id.
+     */
+    public boolean contains(int id) {
+        return id < pos.length && pos[id] >= 0;
+    }
+
+    /**
+     * Returns the key associated with the given id.
+     *
+     * @throws NoSuchElementException if this heap does not contain the given id
+     */
+    public long key(int id) {
+        return keys[position(id)];
+    }
+
+    /**
+     * Returns the id having the minimum key without removing it.
+     *
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Returns the minimum key.
+     *
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public long peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        return keys[0];
+    }
+
+    /**
+     * Adds the given id with the given key to this heap.
+     *
+     * @throws IllegalArgumentException if this heap already contains the given id
+     */
+    public void add(int id, long key) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("The heap already contains id " + id + ".");
+        }
+
+        ensureCapacity(id);
+        siftUp(size++, id, key);
+    }
+
+    /**
+     * Decreases the key of the given id, which must be contained in this heap.
+     *
+     * @throws NoSuchElementException if this heap does not contain the given id
+     * @throws IllegalArgumentException if the given key is greater than the current key of the id
+     */
+    public void decreaseKey(int id, long key) {
+        int p = position(id);
+        if (key > keys[p]) {
+            throw new IllegalArgumentException(
+                    String.format("The new key is greater than the current one: %d > %d.", key, keys[p]));
+        }
+        siftUp(p, id, key);
+    }
+
+    /**
+     * Adds the given id with the given key to this heap or changes its key if it is already contained.
+     * The key can be both decreased and increased.
+     */
+    public void update(int id, long key) {
+        if (!contains(id)) {
+            add(id, key);
+        } else if (key <= keys[pos[id]]) {
+            siftUp(pos[id], id, key);
+        } else {
+            siftDown(pos[id], id, key);
+        }
+    }
+
+    /**
+     * Removes the id having the minimum key from this heap and returns it.
+     *
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int poll() {
+        int id = peek();
+        removeAt(0);
+        return id;
+    }
+
+    /**
+     * Removes the given id from this heap if it is contained.
+     *
+     * @return true if the id was contained in this heap
+     */
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        removeAt(pos[id]);
+        return true;
+    }
+
+    /**
+     * Removes all elements from this heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private int position(int id) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("The heap does not contain id " + id + ".");
+        }
+        return pos[id];
+    }
+
+    private void removeAt(int p) {
+        pos[heap[p]] = -1;
+        size--;
+        if (p < size) {
+            // Move the last element into the gap
+            int id = heap[size];
+            long key = keys[size];
+            if (p > 0 && key < keys[(p - 1) / D]) {
+                siftUp(p, id, key);
+            } else {
+                siftDown(p, id, key);
+            }
+        }
+    }
+
+    private void siftUp(int p, int id, long key) {
+        while (p > 0) {
+            int parent = (p - 1) / D;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(heap[parent], keys[parent], p);
+            p = parent;
+        }
+        move(id, key, p);
+    }
+
+    private void siftDown(int p, int id, long key) {
+        while (true) {
+            int first = D * p + 1;
+            if (first >= size) {
+                break;
+            }
+
+            // Find the child with the minimum key
+            int min = first;
+            int last = Math.min(first + D, size);
+            for (int c = first + 1; c < last; c++) {
+                if (keys[c] < keys[min]) {
+                    min = c;
+                }
+            }
+            if (key <= keys[min]) {
+                break;
+            }
+            move(heap[min], keys[min], p);
+            p = min;
+        }
+        move(id, key, p);
+    }
+
+    private void move(int id, long key, int p) {
+        heap[p] = id;
+        keys[p] = key;
+        pos[id] = p;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= pos.length) {
+            int oldLength = pos.length;
+            pos = Arrays.copyOf(pos, Math.max(id + 1, 2 * oldLength));
+            Arrays.fill(pos, oldLength, pos.length, -1);
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * size);
+            keys = Arrays.copyOf(keys, 2 * size);
+        }
+    }
+
+}
@@ -0,0 +1,586 @@
+package com.github.pkovacs.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * An immutable, array-based <a href="https://en.wikipedia.org/wiki/K-d_tree">k-d tree</a> of points with integer
+ * coordinates ({@link Pos}, {@link Vector}, or {@link VectorD} objects), which supports nearest neighbor,
+ * k-nearest neighbors, radius, and range queries. The distances are measured by the {@linkplain Metric metrics}
+ * of the point classes: squared Euclidean distance ({@code distSq}) or Manhattan distance ({@code dist1}).
+ * <p>
+ * The points are identified by their indices {@code 0, 1, ..., n-1} in the given collection, and ties between equal
+ * distances are broken by the indices. The coordinates are stored in a flat {@code long[]} array
+ * ({@code coords[i * dim + k]} is the {@code k}-th coordinate of point {@code i}). The tree is implicit: a node is
+ * a range {@code [lo, hi)} of a permutation of the point indices, its root point is at position
+ * {@code mid = (lo + hi) >>> 1}, and its subtrees are the ranges {@code [lo, mid)} and {@code [mid + 1, hi)}. The
+ * split dimension and the bounding box of each node are stored at position {@code mid}. The tree is built by median
+ * selection along the dimension of the largest spread, optionally in parallel using the common
+ * {@link ForkJoinPool}.
+ *
+ * @param <P> the type of the points
+ * @see GeometricClustering
+ */
+public final class KdTree<P> {
+
+    /** The minimum size of a subtree to be built as a separate task in parallel mode. */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * The distance metrics supported by {@link KdTree}.
+     */
+    public enum Metric {
+        /** Squared Euclidean distance (see {@link Pos#distSq(Pos)}). */
+        SQUARED_EUCLIDEAN,
+        /** Manhattan distance (see {@link Pos#dist1(Pos)}). */
+        MANHATTAN
+    }
+
+    final int n;
+    final int dim;
+    final long[] coords;
+    final int[] perm; // the point indices in tree order
+    final int[] splitDim; // the split dimension of the node at each position
+    final long[] boxMin; // the bounding box of the node at each position (boxMin[mid * dim + k])
+    final long[] boxMax;
+
+    private final List<P> points;
+    private final Function<? super P, long[]> coordFunction;
+
+    private KdTree(Collection<? extends P> points, int dim, Function<? super P, long[]> coordFunction,
+            boolean parallel) {
+        this.points = List.copyOf(points);
+        this.dim = dim;
+        this.coordFunction = coordFunction;
+        n = this.points.size();
+        coords = new long[n * dim];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(coords(this.points.get(i)), 0, coords, i * dim, dim);
+        }
+
+        perm = new int[n];
+        Arrays.setAll(perm, i -> i);
+        splitDim = new int[n];
+        boxMin = new long[n * dim];
+        boxMax = new long[n * dim];
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new BuildTask(0, n));
+        } else {
+            build(0, n);
+        }
+    }
+
+    /**
+     * Builds a k-d tree of the given 2D positions.
+     */
+    public static KdTree<Pos> ofPositions(Collection<Pos> points) {
+        return ofPositions(points, false);
+    }
+
+    /**
+     * Builds a k-d tree of the given 2D positions, optionally in parallel.
+     */
+    public static KdTree<Pos> ofPositions(Collection<Pos> points, boolean parallel) {
+        return new KdTree<>(points, 2, p -> new long[] { p.x, p.y }, parallel);
+    }
+
+    /**
+     * Builds a k-d tree of the given 3D vectors.
+     */
+    public static KdTree<Vector> ofVectors(Collection<Vector> points) {
+        return ofVectors(points, false);
+    }
+
+    /**
+     * Builds a k-d tree of the given 3D vectors, optionally in parallel.
+     */
+    public static KdTree<Vector> ofVectors(Collection<Vector> points, boolean parallel) {
+        return new KdTree<>(points, 3, v -> new long[] { v.x, v.y, v.z }, parallel);
+    }
+
+    /**
+     * Builds a k-d tree of the given D-dimensional vectors.
+     *
+     * @throws IllegalArgumentException if the vectors have different dimensions
+     */
+    public static KdTree<VectorD> ofVectorDs(Collection<VectorD> points) {
+        return ofVectorDs(points, false);
+    }
+
+    /**
+     * Builds a k-d tree of the given D-dimensional vectors, optionally in parallel.
+     *
+     * @throws IllegalArgumentException if the vectors have different dimensions
+     */
+    public static KdTree<VectorD> ofVectorDs(Collection<VectorD> points, boolean parallel) {
+        int dim = points.isEmpty() ? 2 : points.iterator().next().dim();
+        return new KdTree<>(points, dim, v -> {
+            if (v.dim() != dim) {
+                throw new IllegalArgumentException("Vector dimensions are different.");
+            }
+            long[] c = new long[dim];
+            Arrays.setAll(c, v::get);
+            return c;
+        }, parallel);
+    }
+
+    /**
+     * Returns the number of points.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the dimension of the points.
+     */
+    public int dim() {
+        return dim;
+    }
+
+    /**
+     * Returns the list of the points (in the order of their indices).
+     */
+    public List<P> points() {
+        return points;
+    }
+
+    /**
+     * Returns the nearest point to the given query point with respect to squared Euclidean distance, or an empty
+     * optional if the tree is empty.
+     */
+    public Optional<P> nearest(P query) {
+        return nearest(query, Metric.SQUARED_EUCLIDEAN);
+    }
+
+    /**
+     * Returns the nearest point to the given query point with respect to the given metric, or an empty optional if
+     * the tree is empty.
+     */
+    public Optional<P> nearest(P query, Metric metric) {
+        return nearest(query, 1, metric).stream().findFirst();
+    }
+
+    /**
+     * Returns the {@code k} nearest points to the given query point (or all points if there are fewer) with respect
+     * to squared Euclidean distance, in increasing order of distance.
+     */
+    public List<P> nearest(P query, int k) {
+        return nearest(query, k, Metric.SQUARED_EUCLIDEAN);
+    }
+
+    /**
+     * Returns the {@code k} nearest points to the given query point (or all points if there are fewer) with respect
+     * to the given metric, in increasing order of distance.
+     *
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public List<P> nearest(P query, int k, Metric metric) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of points: " + k + ".");
+        }
+
+        var result = new ArrayList<P>(Math.min(k, n));
+        if (n == 0) {
+            return result;
+        }
+        var iterator = new NearestIterator(coords(query), -1, metric);
+        for (int i; result.size() < k && (i = iterator.next()) >= 0; ) {
+            result.add(points.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the points whose squared Euclidean distance from the given query point is at most {@code maxDist},
+     * in increasing order of distance.
+     */
+    public List<P> withinDist(P query, long maxDist) {
+        return withinDist(query, maxDist, Metric.SQUARED_EUCLIDEAN);
+    }
+
+    /**
+     * Returns the points whose distance from the given query point with respect to the given metric is at most
+     * {@code maxDist}, in increasing order of distance.
+     */
+    public List<P> withinDist(P query, long maxDist, Metric metric) {
+        if (n == 0) {
+            return List.of();
+        }
+        long[] q = coords(query);
+        var found = new ArrayList<long[]>(); // (dist, index) pairs
+        collectWithinDist(0, n, q, maxDist, metric, found);
+        found.sort(Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+        return found.stream().map(e -> points.get((int) e[1])).toList();
+    }
+
+    /**
+     * Returns the points contained in the given box in the order of their indices.
+     *
+     * @throws IllegalArgumentException if the dimension of the points is not 2
+     */
+    public List<P> inBox(Box box) {
+        if (dim != 2) {
+            throw new IllegalArgumentException("Box query for points of dimension " + dim + ".");
+        }
+        return inBox(new long[] { box.x().min, box.y().min }, new long[] { box.x().max, box.y().max });
+    }
+
+    /**
+     * Returns the points contained in the given box in the order of their indices.
+     *
+     * @throws IllegalArgumentException if the dimension of the points is not 3
+     */
+    public List<P> inBox(VectorBox box) {
+        if (dim != 3) {
+            throw new IllegalArgumentException("Box query for points of dimension " + dim + ".");
+        }
+        return inBox(new long[] { box.x().min, box.y().min, box.z().min },
+                new long[] { box.x().max, box.y().max, box.z().max });
+    }
+
+    private List<P> inBox(long[] min, long[] max) {
+        var found = new boolean[n];
+        collectInBox(0, n, min, max, found);
+        var result = new ArrayList<P>();
+        for (int i = 0; i < n; i++) {
+            if (found[i]) {
+                result.add(points.get(i));
+            }
+        }
+        return result;
+    }
+
+    private void collectWithinDist(int lo, int hi, long[] q, long maxDist, Metric metric, List<long[]> found) {
+        int mid = (lo + hi) >>> 1;
+        if (lo >= hi || boxDist(q, mid, metric) > maxDist) {
+            return;
+        }
+        int p = perm[mid];
+        long d = dist(q, p, metric);
+        if (d <= maxDist) {
+            found.add(new long[] { d, p });
+        }
+        collectWithinDist(lo, mid, q, maxDist, metric, found);
+        collectWithinDist(mid + 1, hi, q, maxDist, metric, found);
+    }
+
+    private void collectInBox(int lo, int hi, long[] min, long[] max, boolean[] found) {
+        int mid = (lo + hi) >>> 1;
+        if (lo >= hi) {
+            return;
+        }
+        boolean inside = true;
+        for (int k = 0; k < dim; k++) {
+            if (boxMax[mid * dim + k] < min[k] || boxMin[mid * dim + k] > max[k]) {
+                return;
+            }
+            long c = coords[perm[mid] * dim + k];
+            inside &= min[k] <= c && c <= max[k];
+        }
+        found[perm[mid]] = inside;
+        collectInBox(lo, mid, min, max, found);
+        collectInBox(mid + 1, hi, min, max, found);
+    }
+
+    private long[] coords(P point) {
+        long[] c = coordFunction.apply(point);
+        if (c.length != dim) {
+            throw new IllegalArgumentException("Vector dimensions are different.");
+        }
+        return c;
+    }
+
+    private void build(int lo, int hi) {
+        if (lo < hi) {
+            int mid = split(lo, hi);
+            build(lo, mid);
+            build(mid + 1, hi);
+        }
+    }
+
+    /**
+     * Builds the subtrees in parallel as long as they are large enough.
+     */
+    @SuppressWarnings("serial")
+    private final class BuildTask extends RecursiveAction {
+
+        final int lo;
+        final int hi;
+
+        BuildTask(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo < PARALLEL_THRESHOLD) {
+                build(lo, hi);
+            } else {
+                int mid = split(lo, hi);
+                ForkJoinTask.invokeAll(new BuildTask(lo, mid), new BuildTask(mid + 1, hi));
+            }
+        }
+
+    }
+
+    /**
+     * Calculates the bounding box and the split dimension of the node {@code [lo, hi)}, and moves the median point
+     * to its root position.
+     *
+     * @return the root position of the node
+     */
+    private int split(int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        int split = 0;
+        long spread = -1;
+        for (int k = 0; k < dim; k++) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int p = lo; p < hi; p++) {
+                long c = coords[perm[p] * dim + k];
+                min = Math.min(min, c);
+                max = Math.max(max, c);
+            }
+            boxMin[mid * dim + k] = min;
+            boxMax[mid * dim + k] = max;
+            if (max - min > spread) {
+                spread = max - min;
+                split = k;
+            }
+        }
+
+        splitDim[mid] = split;
+        select(lo, hi - 1, mid, split);
+        return mid;
+    }
+
+    /**
+     * Rearranges {@code perm[lo..hi]} (inclusive) so that the point with the {@code k}-th smallest coordinate in the
+     * given dimension is at position {@code k}, and the points before and after it are not larger and not smaller,
+     * respectively (quickselect with middle pivot).
+     */
+    private void select(int lo, int hi, int k, int d) {
+        while (lo < hi) {
+            long pivot = coord(perm[(lo + hi) >>> 1], d);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coord(perm[i], d) < pivot) {
+                    i++;
+                }
+                while (coord(perm[j], d) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = perm[i];
+                    perm[i++] = perm[j];
+                    perm[j--] = tmp;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    long coord(int i, int k) {
+        return coords[i * dim + k];
+    }
+
+    /**
+     * Returns the coordinates of the given point.
+     */
+    long[] coords(int i) {
+        return Arrays.copyOfRange(coords, i * dim, (i + 1) * dim);
+    }
+
+    /**
+     * Returns the squared Euclidean distance between the given points.
+     */
+    long distSq(int i, int j) {
+        long sum = 0;
+        for (int k = 0; k < dim; k++) {
+            long d = coords[i * dim + k] - coords[j * dim + k];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the squared Euclidean distance between the given point and the bounding box of the node at the given
+     * position.
+     */
+    long boxDistSq(int i, int mid) {
+        long sum = 0;
+        for (int k = 0; k < dim; k++) {
+            long c = coords[i * dim + k];
+            long d = Math.max(0, Math.max(boxMin[mid * dim + k] - c, c - boxMax[mid * dim + k]));
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the distance between the given query coordinates and the given point.
+     */
+    private long dist(long[] q, int i, Metric metric) {
+        long sum = 0;
+        for (int k = 0; k < dim; k++) {
+            long d = q[k] - coords[i * dim + k];
+            sum += metric == Metric.SQUARED_EUCLIDEAN ? d * d : Math.abs(d);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the distance between the given query coordinates and the bounding box of the node at the given
+     * position.
+     */
+    private long boxDist(long[] q, int mid, Metric metric) {
+        long sum = 0;
+        for (int k = 0; k < dim; k++) {
+            long d = Math.max(0, Math.max(boxMin[mid * dim + k] - q[k], q[k] - boxMax[mid * dim + k]));
+            sum += metric == Metric.SQUARED_EUCLIDEAN ? d * d : d;
+        }
+        return sum;
+    }
+
+    /**
+     * Iterates over the points in increasing order of their distance from the given query coordinates (ties are
+     * broken by the point indices), using a best-first traversal of the tree. Only the points with larger indices
+     * than {@code minIndex} are returned.
+     */
+    final class NearestIterator {
+
+        private final long[] query;
+        private final int minIndex;
+        private final Metric metric;
+
+        // A binary heap of nodes (lo, hi) and points (index, -1) keyed by distance. For equal distances, nodes
+        // precede points, and points are ordered by their indices.
+        private long[] keys = new long[16];
+        private int[] as = new int[16];
+        private int[] bs = new int[16];
+        private int size;
+
+        private long dist;
+
+        NearestIterator(long[] query, int minIndex, Metric metric) {
+            this.query = query;
+            this.minIndex = minIndex;
+            this.metric = metric;
+            if (n > 0) {
+                push(boxDist(query, (n - 1) >>> 1, metric), 0, n);
+            }
+        }
+
+        /**
+         * Returns the next point or {@code -1} if there are no more points.
+         */
+        int next() {
+            while (size > 0) {
+                long key = keys[0];
+                int a = as[0];
+                int b = bs[0];
+                pop();
+                if (b < 0) {
+                    dist = key;
+                    return a;
+                }
+
+                int mid = (a + b) >>> 1;
+                int p = perm[mid];
+                if (p > minIndex) {
+                    push(KdTree.this.dist(query, p, metric), p, -1);
+                }
+                if (a < mid) {
+                    push(boxDist(query, (a + mid) >>> 1, metric), a, mid);
+                }
+                if (mid + 1 < b) {
+                    push(boxDist(query, (mid + 1 + b) >>> 1, metric), mid + 1, b);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the distance of the last point returned by {@link #next()}.
+         */
+        long dist() {
+            return dist;
+        }
+
+        private boolean less(int x, int y) {
+            if (keys[x] != keys[y]) {
+                return keys[x] < keys[y];
+            }
+            if ((bs[x] < 0) != (bs[y] < 0)) {
+                return bs[x] >= 0;
+            }
+            return as[x] < as[y];
+        }
+
+        private void push(long key, int a, int b) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                as = Arrays.copyOf(as, 2 * size);
+                bs = Arrays.copyOf(bs, 2 * size);
+            }
+            keys[size] = key;
+            as[size] = a;
+            bs[size] = b;
+            for (int i = size++; i > 0 && less(i, (i - 1) / 2); i = (i - 1) / 2) {
+                swap(i, (i - 1) / 2);
+            }
+        }
+
+        private void pop() {
+            size--;
+            keys[0] = keys[size];
+            as[0] = as[size];
+            bs[0] = bs[size];
+            for (int i = 0; ; ) {
+                int c = 2 * i + 1;
+                if (c >= size) {
+                    break;
+                }
+                if (c + 1 < size && less(c + 1, c)) {
+                    c++;
+                }
+                if (!less(c, i)) {
+                    break;
+                }
+                swap(i, c);
+                i = c;
+            }
+        }
+
+        private void swap(int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            int a = as[i];
+            as[i] = as[j];
+            as[j] = a;
+            int b = bs[i];
+            bs[i] = bs[j];
+            bs[j] = b;
+        }
+
+    }
+
+}
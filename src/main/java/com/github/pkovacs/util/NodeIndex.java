@@ -0,0 +1,92 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense integer ids to the nodes of a graph in the order they are added: {@code 0, 1, 2, ...}.
+ * This allows storing data associated with the nodes in primitive arrays instead of hash maps.
+ * <p>
+ * It is implemented as an open addressing hash table (with linear probing) of the ids, and an array of the nodes,
+ * so looking up a node requires no allocation at all.
+ *
+ * @param <T> the type of nodes
+ */
+final class NodeIndex<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] nodes = new Object[INITIAL_CAPACITY];
+    private int[] table = new int[2 * INITIAL_CAPACITY]; // id + 1 or 0 for empty slots
+    private int size;
+
+    /**
+     * Returns the number of nodes in this index.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the node with the given id.
+     */
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        return (T) nodes[id];
+    }
+
+    /**
+     * Returns the id of the given node or {@code -1} if it is not contained in this index.
+     */
+    int indexOf(Object node) {
+        int mask = table.length - 1;
+        for (int i = hash(node) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (nodes[table[i] - 1].equals(node)) {
+                return table[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of the given node. If the node is not contained in this index, then it is added with the next
+     * unused id, that is, the returned value equals to the previous {@link #size()}.
+     */
+    int getOrAdd(T node) {
+        int mask = table.length - 1;
+        int i = hash(node) & mask;
+        for (; table[i] != 0; i = (i + 1) & mask) {
+            if (nodes[table[i] - 1].equals(node)) {
+                return table[i] - 1;
+            }
+        }
+
+        int id = size++;
+        if (id == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * id);
+        }
+        nodes[id] = node;
+        table[i] = id + 1;
+        if (2 * size > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        table = new int[2 * table.length];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int i = hash(nodes[id]) & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = id + 1;
+        }
+    }
+
+    private static int hash(Object node) {
+        int h = node.hashCode() * 0x9E3779B9; // Fibonacci hashing to spread poorly distributed hash codes
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.github.pkovacs.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Implements a parallel, level-synchronous version of the BFS (breadth-first search) algorithm for huge
+ * {@link CompiledGraph}s. The levels of the BFS tree are computed one after the other, but the nodes of each level
+ * are processed in parallel using the common {@link ForkJoinPool}.
+ * <p>
+ * The algorithm is <a href="https://doi.org/10.1109/SC.2012.50">direction-optimizing</a>: it switches between two
+ * strategies depending on the size of the current frontier (the nodes of the last level).
+ * <ul>
+ * <li>
+ *     <b>Top-down step:</b> the outgoing edges of the frontier nodes are scanned, and the unvisited end nodes are
+ *     claimed atomically. This is efficient for small frontiers.
+ * </li>
+ * <li>
+ *     <b>Bottom-up step:</b> each unvisited node scans its incoming edges (using the
+ *     {@linkplain CompiledGraph#reverse() reverse graph}) until it finds a parent in the frontier. This is efficient
+ *     for large frontiers, because most edges need not be checked, and no synchronization is required.
+ * </li>
+ * </ul>
+ * The results are equivalent to the results of {@link Bfs}: the distances are the same, and the parent of each
+ * node is one of its neighbors in the previous level. However, in the case of multiple shortest paths, the parent
+ * of a node might be different from the one found by {@link Bfs}, and it is not deterministic.
+ * <p>
+ * The weights of the edges are ignored.
+ *
+ * @see Bfs
+ */
+public final class ParallelBfs {
+
+    /** Switch to bottom-up steps if the frontier has more than 1/ALPHA of the unexplored edges. */
+    private static final int ALPHA = 14;
+
+    /** Switch back to top-down steps if the frontier has fewer than 1/BETA of the nodes. */
+    private static final int BETA = 24;
+
+    private static final VarHandle DIST = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private ParallelBfs() {
+    }
+
+    /**
+     * Finds shortest paths (in terms of the number of edges) to all nodes reachable from the given source node.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @return a map that associates a shortest {@link Path} with each node reachable from the source node.
+     */
+    public static <T> Map<T, Path<T>> findPaths(CompiledGraph<T> graph, T source) {
+        long[] dist = new long[graph.size()];
+        int[] parent = new int[graph.size()];
+        run(graph, graph.indexOf(source), dist, parent);
+        return graph.toPaths(dist, parent);
+    }
+
+    /**
+     * Calculates the distances (number of edges) of all nodes from the given source node. This method does not
+     * construct {@link Path} objects, so it is much faster and requires much less memory for huge graphs than
+     * {@link #findPaths}.
+     *
+     * @param graph the {@link CompiledGraph}, which must contain the source node.
+     * @param source the source node.
+     * @return an array that contains the distance of each node indexed by the node ids. Unreachable nodes are
+     *         assigned {@link CompiledGraph#UNREACHABLE}.
+     */
+    public static <T> long[] findDistances(CompiledGraph<T> graph, T source) {
+        long[] dist = new long[graph.size()];
+        run(graph, graph.indexOf(source), dist, new int[graph.size()]);
+        return dist;
+    }
+
+    /**
+     * Runs the parallel BFS algorithm and fills the given distance and parent arrays.
+     */
+    static void run(CompiledGraph<?> graph, int source, long[] dist, int[] parent) {
+        int n = graph.size();
+        Arrays.fill(dist, CompiledGraph.UNREACHABLE);
+        dist[source] = 0;
+        parent[source] = -1;
+
+        int[] offsets = graph.offsets();
+        int[] frontier = { source };
+        long unexploredEdges = graph.edgeCount();
+        boolean bottomUp = false;
+        for (long level = 0; frontier.length > 0; level++) {
+            int[] current = frontier;
+            long frontierEdges = IntStream.of(current).parallel().mapToLong(u -> offsets[u + 1] - offsets[u]).sum();
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && current.length < n / BETA) {
+                bottomUp = false;
+            }
+            unexploredEdges -= frontierEdges;
+
+            frontier = bottomUp
+                    ? bottomUpStep(graph.reverse(), current, level, dist, parent)
+                    : topDownStep(graph, current, level, dist, parent);
+        }
+    }
+
+    private static int[] topDownStep(CompiledGraph<?> graph, int[] frontier, long level, long[] dist, int[] parent) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        return collect(frontier.length, (from, to, next) -> {
+            for (int i = from; i < to; i++) {
+                int u = frontier[i];
+                for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                    int v = targets[e];
+                    if (dist[v] == CompiledGraph.UNREACHABLE
+                            && DIST.compareAndSet(dist, v, CompiledGraph.UNREACHABLE, level + 1)) {
+                        parent[v] = u;
+                        next.add(v);
+                    }
+                }
+            }
+        });
+    }
+
+    private static int[] bottomUpStep(CompiledGraph<?> reverse, int[] frontier, long level, long[] dist,
+            int[] parent) {
+        int n = reverse.size();
+        long[] inFrontier = new long[(n + 63) >>> 6];
+        for (int u : frontier) {
+            inFrontier[u >>> 6] |= 1L << u;
+        }
+
+        int[] offsets = reverse.offsets();
+        int[] targets = reverse.targets();
+        return collect(n, (from, to, next) -> {
+            for (int v = from; v < to; v++) {
+                if (dist[v] == CompiledGraph.UNREACHABLE) {
+                    for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                        int u = targets[e];
+                        if ((inFrontier[u >>> 6] & (1L << u)) != 0) {
+                            dist[v] = level + 1;
+                            parent[v] = u;
+                            next.add(v);
+                            break;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Splits the index range {@code [0..size-1]} into chunks, processes the chunks in parallel, and concatenates
+     * the collected values.
+     */
+    private static int[] collect(int size, ChunkTask task) {
+        int chunkCount = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(), size);
+        if (chunkCount <= 1) {
+            var builder = IntStream.builder();
+            task.run(0, size, builder);
+            return builder.build().toArray();
+        }
+
+        int chunkSize = (size + chunkCount - 1) / chunkCount;
+        return IntStream.range(0, chunkCount).parallel()
+                .mapToObj(c -> {
+                    var builder = IntStream.builder();
+                    task.run(Math.min(c * chunkSize, size), Math.min((c + 1) * chunkSize, size), builder);
+                    return builder.build();
+                })
+                .flatMapToInt(s -> s)
+                .toArray();
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int from, int to, IntStream.Builder next);
+    }
+
+}
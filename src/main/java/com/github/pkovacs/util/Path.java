@@ -40,6 +40,13 @@ public final class Path<T> {
         return dist;
     }
 
+    /**
+     * Returns the path without its end node or {@code null} if this path consists of a single node.
+     */
+    Path<T> prev() {
+        return prev;
+    }
+
     /**
      * Returns the list of nodes along the path. The first element of the list is the source node, and the last element
      * is the end node of the path. The returned list is constructed on demand and cached.
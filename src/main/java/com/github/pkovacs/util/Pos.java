@@ -315,6 +315,113 @@ public final class Pos implements Comparable<Pos> {
         return Stream.iterate(other, t -> t.plus(delta));
     }
 
+    /**
+     * Performs the given action for each of the 4 main neighbors of this position in lexicographical order.
+     * This method is equivalent to {@code neighbors().forEach(...)}, but it does not create any objects.
+     */
+    public void forEachNeighbor(CoordConsumer action) {
+        action.accept(x - 1, y);
+        action.accept(x, y - 1);
+        action.accept(x, y + 1);
+        action.accept(x + 1, y);
+    }
+
+    /**
+     * Performs the given action for each of the 8 "extended" neighbors of this position (also including
+     * the diagonal ones) in lexicographical order. This method is equivalent to
+     * {@code neighbors8().forEach(...)}, but it does not create any objects.
+     */
+    public void forEachNeighbor8(CoordConsumer action) {
+        action.accept(x - 1, y - 1);
+        action.accept(x - 1, y);
+        action.accept(x - 1, y + 1);
+        action.accept(x, y - 1);
+        action.accept(x, y + 1);
+        action.accept(x + 1, y - 1);
+        action.accept(x + 1, y);
+        action.accept(x + 1, y + 1);
+    }
+
+    /**
+     * Performs the given action for each position of the straight line segment from this position to the given
+     * other position in order. This method is equivalent to {@code lineTo(other).forEach(...)}, but it does not
+     * create any objects.
+     *
+     * @throws IllegalArgumentException if this position and the given position do not lay on a common
+     *         horizontal, vertical, or diagonal line.
+     */
+    public void lineTo(Pos other, CoordConsumer action) {
+        long deltaX = other.x - x;
+        long deltaY = other.y - y;
+        if (deltaX != 0 && deltaY != 0 && Utils.abs(deltaX) != Utils.abs(deltaY)) {
+            throw new IllegalArgumentException(
+                    "The positions do not lay on a common horizontal, vertical, or diagonal line.");
+        }
+        long dist = Utils.max(Utils.abs(deltaX), Utils.abs(deltaY));
+        long dx = Long.signum(deltaX);
+        long dy = Long.signum(deltaY);
+        for (long i = 0; i <= dist; i++) {
+            action.accept(x + i * dx, y + i * dy);
+        }
+    }
+
+    /**
+     * Moves away from this position in the given direction (like {@link #ray(Dir)}) while the given action
+     * returns true for the subsequent positions. This method does not create any objects.
+     *
+     * @return the number of positions for which the action returned true
+     */
+    public long ray(Dir dir, CoordPredicate action) {
+        return ray(dir.toDir8(), action);
+    }
+
+    /**
+     * Moves away from this position in the given direction (like {@link #ray(Dir8)}) while the given action
+     * returns true for the subsequent positions. This method does not create any objects.
+     *
+     * @return the number of positions for which the action returned true
+     */
+    public long ray(Dir8 dir, CoordPredicate action) {
+        return ray(dx(dir), dy(dir), action);
+    }
+
+    /**
+     * Moves away from this position by the given delta values (like {@link #ray(Pos)} with
+     * {@code plus(dx, dy)}) while the given action returns true for the subsequent positions. This method does
+     * not create any objects.
+     *
+     * @return the number of positions for which the action returned true
+     */
+    public long ray(long dx, long dy, CoordPredicate action) {
+        long count = 0;
+        for (long px = x + dx, py = y + dy; action.test(px, py); px += dx, py += dy) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the change of the x coordinate when moving one step in the given direction.
+     */
+    static int dx(Dir8 dir) {
+        return switch (dir) {
+            case N, S -> 0;
+            case NE, E, SE -> 1;
+            case SW, W, NW -> -1;
+        };
+    }
+
+    /**
+     * Returns the change of the y coordinate when moving one step in the given direction.
+     */
+    static int dy(Dir8 dir) {
+        return switch (dir) {
+            case E, W -> 0;
+            case SE, S, SW -> 1;
+            case N, NE, NW -> -1;
+        };
+    }
+
     /**
      * Creates a new position by adding the given other position vector to this one.
      */
@@ -501,4 +608,24 @@ public final class Pos implements Comparable<Pos> {
         return x != other.x ? Long.compare(x, other.x) : Long.compare(y, other.y);
     }
 
+    /**
+     * An action to be performed for the coordinates of a position.
+     */
+    @FunctionalInterface
+    public interface CoordConsumer {
+
+        void accept(long x, long y);
+
+    }
+
+    /**
+     * A predicate of the coordinates of a position.
+     */
+    @FunctionalInterface
+    public interface CoordPredicate {
+
+        boolean test(long x, long y);
+
+    }
+
 }
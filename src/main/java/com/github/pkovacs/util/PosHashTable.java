@@ -0,0 +1,221 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+
+/**
+ * The open-addressing hash table behind {@link PosSet}, {@link PosLongMap} and {@link PosObjectMap}. The positions
+ * are packed into {@code long} keys ({@code x} in the upper 32 bits, {@code y} in the lower 32 bits), which are
+ * stored in a flat array with linear probing, and the optional values are stored in a parallel array. The keys are
+ * hashed by the finalizer of MurmurHash3, so clustered or large coordinates do not collide.
+ * <p>
+ * The empty slots are marked by {@link #FREE}, which is also a valid key: the position
+ * {@code (Integer.MIN_VALUE, 0)}. This key is stored in an extra slot at the end of the arrays (at index
+ * {@code capacity}). Removal uses backward-shift deletion, so there are no tombstones.
+ */
+final class PosHashTable {
+
+    /** The key of the empty slots. */
+    static final long FREE = Long.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    long[] keys; // capacity + 1 slots
+    long[] longValues; // null if the table does not store long values
+    Object[] objectValues; // null if the table does not store object values
+    private int mask; // capacity - 1
+    private int size;
+    private boolean containsFree;
+
+    PosHashTable(int expectedSize, boolean withLongValues, boolean withObjectValues) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize + ".");
+        }
+
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2L * expectedSize && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        mask = capacity - 1;
+        keys = new long[capacity + 1];
+        Arrays.fill(keys, FREE);
+        longValues = withLongValues ? new long[capacity + 1] : null;
+        objectValues = withObjectValues ? new Object[capacity + 1] : null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the given coordinates can be packed into a key.
+     */
+    static boolean fits(long x, long y) {
+        return x == (int) x && y == (int) y;
+    }
+
+    /**
+     * Packs the given coordinates into a key.
+     *
+     * @throws IllegalArgumentException if a coordinate is out of the range of {@code int}
+     */
+    static long pack(long x, long y) {
+        if (!fits(x, y)) {
+            throw new IllegalArgumentException("Position out of range: " + new Pos(x, y) + ".");
+        }
+        return x << 32 | y & 0xFFFFFFFFL;
+    }
+
+    static Pos unpack(long key) {
+        return new Pos(key >> 32, (int) key);
+    }
+
+    /**
+     * Returns the slot of the given key or {@code -1} if the table does not contain it.
+     */
+    int find(long key) {
+        if (key == FREE) {
+            return containsFree ? mask + 1 : -1;
+        }
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return i;
+            } else if (k == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Inserts the given key if the table does not contain it.
+     *
+     * @return the slot of the key if it was already contained or {@code -(slot + 1)} if it was inserted
+     */
+    int insert(long key) {
+        if (key == FREE) {
+            if (containsFree) {
+                return mask + 1;
+            }
+            containsFree = true;
+            size++;
+            return -(mask + 2);
+        }
+
+        if (2L * (size + 1) > mask + 1 && mask + 1 < MAX_CAPACITY) {
+            rehash(2 * (mask + 1));
+        }
+        int i = hash(key) & mask;
+        for (long k; (k = keys[i]) != FREE; i = (i + 1) & mask) {
+            if (k == key) {
+                return i;
+            }
+        }
+        keys[i] = key;
+        size++;
+        return -(i + 1);
+    }
+
+    /**
+     * Removes the entry in the given slot. The entries after it in the same cluster are shifted backwards to fill
+     * the gap if their home slot allows it.
+     */
+    void removeSlot(int i) {
+        size--;
+        if (i == mask + 1) {
+            containsFree = false;
+            clearValue(i);
+            return;
+        }
+
+        int last = i;
+        for (int j = (i + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            // The entry in slot j can be moved to slot last if its home slot is not cyclically in (last, j]
+            int home = hash(keys[j]) & mask;
+            if (last <= j ? home <= last || home > j : home <= last && home > j) {
+                keys[last] = keys[j];
+                if (longValues != null) {
+                    longValues[last] = longValues[j];
+                }
+                if (objectValues != null) {
+                    objectValues[last] = objectValues[j];
+                }
+                last = j;
+            }
+        }
+        keys[last] = FREE;
+        clearValue(last);
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        if (objectValues != null) {
+            Arrays.fill(objectValues, null);
+        }
+        size = 0;
+        containsFree = false;
+    }
+
+    /**
+     * Returns the first occupied slot at or after the given slot or {@code -1} if there is no such slot.
+     * The slots can be iterated as {@code for (int i = nextSlot(0); i >= 0; i = nextSlot(i + 1))}.
+     */
+    int nextSlot(int i) {
+        for (; i <= mask; i++) {
+            if (keys[i] != FREE) {
+                return i;
+            }
+        }
+        return i == mask + 1 && containsFree ? i : -1;
+    }
+
+    private void clearValue(int i) {
+        if (objectValues != null) {
+            objectValues[i] = null;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldLongValues = longValues;
+        Object[] oldObjectValues = objectValues;
+        int oldCapacity = mask + 1;
+
+        mask = capacity - 1;
+        keys = new long[capacity + 1];
+        Arrays.fill(keys, FREE);
+        longValues = oldLongValues != null ? new long[capacity + 1] : null;
+        objectValues = oldObjectValues != null ? new Object[capacity + 1] : null;
+
+        for (int i = 0; i <= oldCapacity; i++) {
+            if (i < oldCapacity && oldKeys[i] == FREE) {
+                continue;
+            }
+            int j = capacity;
+            if (i < oldCapacity) {
+                j = hash(oldKeys[i]) & mask;
+                while (keys[j] != FREE) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+            }
+            if (longValues != null) {
+                longValues[j] = oldLongValues[i];
+            }
+            if (objectValues != null) {
+                objectValues[j] = oldObjectValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // The 64-bit finalizer of MurmurHash3
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB93FE53A6A3BL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+}
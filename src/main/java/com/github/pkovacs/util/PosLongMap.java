@@ -0,0 +1,205 @@
+package com.github.pkovacs.util;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A map from {@link Pos} objects to primitive {@code long} values implemented as an open-addressing hash table:
+ * each position is packed into a single {@code long} key, and the values are stored in a parallel {@code long}
+ * array. Neither the keys nor the values are boxed. See {@link PosSet} for more details.
+ * <p>
+ * The coordinates of the positions put into this map must be in the range of {@code int}. This map must not be
+ * modified while iterating over it.
+ *
+ * @see PosSet
+ * @see PosObjectMap
+ * @see CounterMap
+ */
+public final class PosLongMap {
+
+    private final PosHashTable table;
+
+    /**
+     * Creates a new empty map.
+     */
+    public PosLongMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a new empty map for the given expected number of entries.
+     *
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public PosLongMap(int expectedSize) {
+        table = new PosHashTable(expectedSize, true, false);
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Returns true if this map is empty.
+     */
+    public boolean isEmpty() {
+        return table.size() == 0;
+    }
+
+    /**
+     * Returns true if this map contains the given position.
+     */
+    public boolean containsKey(Pos pos) {
+        return containsKey(pos.x, pos.y);
+    }
+
+    /**
+     * Returns true if this map contains the position {@code (x,y)}.
+     */
+    public boolean containsKey(long x, long y) {
+        return find(x, y) >= 0;
+    }
+
+    /**
+     * Returns the value associated with the given position or {@code defaultValue} if this map does not contain
+     * the position.
+     */
+    public long getOrDefault(Pos pos, long defaultValue) {
+        return getOrDefault(pos.x, pos.y, defaultValue);
+    }
+
+    /**
+     * Returns the value associated with the position {@code (x,y)} or {@code defaultValue} if this map does not
+     * contain the position.
+     */
+    public long getOrDefault(long x, long y, long defaultValue) {
+        int i = find(x, y);
+        return i >= 0 ? table.longValues[i] : defaultValue;
+    }
+
+    /**
+     * Associates the given value with the given position.
+     *
+     * @throws IllegalArgumentException if a coordinate of the position is out of the range of {@code int}
+     */
+    public void put(Pos pos, long value) {
+        put(pos.x, pos.y, value);
+    }
+
+    /**
+     * Associates the given value with the position {@code (x,y)}.
+     *
+     * @throws IllegalArgumentException if a coordinate is out of the range of {@code int}
+     */
+    public void put(long x, long y, long value) {
+        table.longValues[slot(x, y)] = value;
+    }
+
+    /**
+     * Adds {@code delta} to the value associated with the given position and returns the new value.
+     * If this map did not contain the position, the old value is assumed to be zero.
+     *
+     * @throws IllegalArgumentException if a coordinate of the position is out of the range of {@code int}
+     */
+    public long add(Pos pos, long delta) {
+        return add(pos.x, pos.y, delta);
+    }
+
+    /**
+     * Adds {@code delta} to the value associated with the position {@code (x,y)} and returns the new value.
+     * If this map did not contain the position, the old value is assumed to be zero.
+     *
+     * @throws IllegalArgumentException if a coordinate is out of the range of {@code int}
+     */
+    public long add(long x, long y, long delta) {
+        int i = slot(x, y);
+        return table.longValues[i] += delta;
+    }
+
+    /**
+     * Removes the given position from this map.
+     *
+     * @return true if this map contained the position
+     */
+    public boolean remove(Pos pos) {
+        return remove(pos.x, pos.y);
+    }
+
+    /**
+     * Removes the position {@code (x,y)} from this map.
+     *
+     * @return true if this map contained the position
+     */
+    public boolean remove(long x, long y) {
+        int i = find(x, y);
+        if (i < 0) {
+            return false;
+        }
+        table.removeSlot(i);
+        return true;
+    }
+
+    /**
+     * Removes all entries from this map.
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * Returns a new {@link PosSet} containing the positions of this map.
+     */
+    public PosSet positions() {
+        var set = new PosSet(size());
+        forEach((x, y, value) -> set.add(x, y));
+        return set;
+    }
+
+    /**
+     * Returns a stream of the positions of this map. The {@code Pos} objects are created on demand.
+     */
+    public Stream<Pos> keys() {
+        return slots().mapToObj(i -> PosHashTable.unpack(table.keys[i]));
+    }
+
+    /**
+     * Performs the given action for each entry of this map without creating {@code Pos} objects.
+     */
+    public void forEach(EntryConsumer action) {
+        for (int i = table.nextSlot(0); i >= 0; i = table.nextSlot(i + 1)) {
+            long key = table.keys[i];
+            action.accept(key >> 32, (int) key, table.longValues[i]);
+        }
+    }
+
+    private IntStream slots() {
+        return IntStream.iterate(table.nextSlot(0), i -> i >= 0, i -> table.nextSlot(i + 1));
+    }
+
+    private int find(long x, long y) {
+        return PosHashTable.fits(x, y) ? table.find(PosHashTable.pack(x, y)) : -1;
+    }
+
+    private int slot(long x, long y) {
+        int i = table.insert(PosHashTable.pack(x, y));
+        if (i < 0) {
+            i = -(i + 1);
+            table.longValues[i] = 0;
+        }
+        return i;
+    }
+
+    /**
+     * An action to be performed for the entries of a {@link PosLongMap}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long x, long y, long value);
+
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.github.pkovacs.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map from {@link Pos} objects to arbitrary values implemented as an open-addressing hash table: each position
+ * is packed into a single {@code long} key, and the values are stored in a parallel array. See {@link PosSet} for
+ * more details.
+ * <p>
+ * The coordinates of the positions put into this map must be in the range of {@code int}. Besides the standard
+ * {@link Map} methods, this class provides overloads with primitive coordinates (e.g., {@link #get(long, long)}),
+ * which do not allocate {@code Pos} objects. The keys and entries returned by the iterators are created on demand.
+ * <p>
+ * This map must not be modified while iterating over it (except for {@link Map.Entry#setValue}), and its iterators
+ * do not support removal.
+ *
+ * @param <V> the type of the values
+ * @see PosSet
+ * @see PosLongMap
+ */
+public final class PosObjectMap<V> extends AbstractMap<Pos, V> {
+
+    private final PosHashTable table;
+    private Set<Map.Entry<Pos, V>> entrySet;
+
+    /**
+     * Creates a new empty map.
+     */
+    public PosObjectMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a new empty map for the given expected number of entries.
+     *
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public PosObjectMap(int expectedSize) {
+        table = new PosHashTable(expectedSize, false, true);
+    }
+
+    /**
+     * Creates a new map containing the entries of the given map.
+     *
+     * @throws IllegalArgumentException if a coordinate of a position is out of the range of {@code int}
+     */
+    public PosObjectMap(Map<Pos, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Pos p && containsKey(p.x, p.y);
+    }
+
+    /**
+     * Returns true if this map contains the position {@code (x,y)}.
+     */
+    public boolean containsKey(long x, long y) {
+        return find(x, y) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Pos p ? get(p.x, p.y) : null;
+    }
+
+    /**
+     * Returns the value associated with the position {@code (x,y)} or {@code null} if this map does not contain
+     * the position.
+     */
+    public V get(long x, long y) {
+        int i = find(x, y);
+        return i >= 0 ? value(i) : null;
+    }
+
+    /**
+     * Associates the given value with the given position.
+     *
+     * @return the previous value associated with the position or {@code null} if there was none
+     * @throws IllegalArgumentException if a coordinate of the position is out of the range of {@code int}
+     */
+    @Override
+    public V put(Pos key, V value) {
+        return put(key.x, key.y, value);
+    }
+
+    /**
+     * Associates the given value with the position {@code (x,y)}.
+     *
+     * @return the previous value associated with the position or {@code null} if there was none
+     * @throws IllegalArgumentException if a coordinate is out of the range of {@code int}
+     */
+    public V put(long x, long y, V value) {
+        int i = table.insert(PosHashTable.pack(x, y));
+        if (i < 0) {
+            table.objectValues[-(i + 1)] = value;
+            return null;
+        }
+        V old = value(i);
+        table.objectValues[i] = value;
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Pos p ? remove(p.x, p.y) : null;
+    }
+
+    /**
+     * Removes the position {@code (x,y)} from this map.
+     *
+     * @return the value associated with the position or {@code null} if there was none
+     */
+    public V remove(long x, long y) {
+        int i = find(x, y);
+        if (i < 0) {
+            return null;
+        }
+        V old = value(i);
+        table.removeSlot(i);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * Returns a new {@link PosSet} containing the positions of this map.
+     */
+    public PosSet positions() {
+        var set = new PosSet(size());
+        for (int i = table.nextSlot(0); i >= 0; i = table.nextSlot(i + 1)) {
+            long key = table.keys[i];
+            set.add(key >> 32, (int) key);
+        }
+        return set;
+    }
+
+    @Override
+    public Set<Map.Entry<Pos, V>> entrySet() {
+        if (entrySet == null) {
+            // Lazy load: a view of the entries
+            entrySet = new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return table.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<Pos, V>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int find(long x, long y) {
+        return PosHashTable.fits(x, y) ? table.find(PosHashTable.pack(x, y)) : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int i) {
+        return (V) table.objectValues[i];
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<Pos, V>> {
+
+        int next = table.nextSlot(0);
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public Map.Entry<Pos, V> next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            int i = next;
+            next = table.nextSlot(i + 1);
+            return new AbstractMap.SimpleEntry<>(PosHashTable.unpack(table.keys[i]), value(i)) {
+                @Override
+                public V setValue(V value) {
+                    table.objectValues[i] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.github.pkovacs.util;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A set of {@link Pos} objects implemented as an open-addressing hash table of primitive {@code long} keys: each
+ * position is packed into a single {@code long} value, so this set takes about 16 bytes per element (instead of
+ * about 48 bytes plus a {@code Pos} object in case of a {@link java.util.HashSet}), and the keys are hashed by a
+ * well-mixed hash function instead of {@link Pos#hashCode()}.
+ * <p>
+ * The coordinates of the positions added to this set must be in the range of {@code int}. Besides the standard
+ * {@link java.util.Set} methods, this class provides overloads with primitive coordinates (e.g.,
+ * {@link #contains(long, long)}), which do not allocate {@code Pos} objects. The {@code Pos} objects returned by the
+ * iterator are created on demand.
+ * <p>
+ * This set must not be modified while iterating over it, and its iterator does not support removal. (Bulk removal
+ * methods like {@link #removeIf(Predicate)} are supported, though.)
+ *
+ * @see PosLongMap
+ * @see PosObjectMap
+ */
+public final class PosSet extends AbstractSet<Pos> {
+
+    private final PosHashTable table;
+
+    /**
+     * Creates a new empty set.
+     */
+    public PosSet() {
+        this(0);
+    }
+
+    /**
+     * Creates a new empty set for the given expected number of elements.
+     *
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public PosSet(int expectedSize) {
+        table = new PosHashTable(expectedSize, false, false);
+    }
+
+    /**
+     * Creates a new set containing the given positions.
+     *
+     * @throws IllegalArgumentException if a coordinate of a position is out of the range of {@code int}
+     */
+    public PosSet(Collection<Pos> positions) {
+        this(positions.size());
+        addAll(positions);
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Pos p && contains(p.x, p.y);
+    }
+
+    /**
+     * Returns true if this set contains the position {@code (x,y)}.
+     */
+    public boolean contains(long x, long y) {
+        return PosHashTable.fits(x, y) && table.find(PosHashTable.pack(x, y)) >= 0;
+    }
+
+    /**
+     * Adds the given position to this set.
+     *
+     * @return true if this set did not already contain the position
+     * @throws IllegalArgumentException if a coordinate of the position is out of the range of {@code int}
+     */
+    @Override
+    public boolean add(Pos pos) {
+        return add(pos.x, pos.y);
+    }
+
+    /**
+     * Adds the position {@code (x,y)} to this set.
+     *
+     * @return true if this set did not already contain the position
+     * @throws IllegalArgumentException if a coordinate is out of the range of {@code int}
+     */
+    public boolean add(long x, long y) {
+        return table.insert(PosHashTable.pack(x, y)) < 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Pos p && remove(p.x, p.y);
+    }
+
+    /**
+     * Removes the position {@code (x,y)} from this set.
+     *
+     * @return true if this set contained the position
+     */
+    public boolean remove(long x, long y) {
+        if (!PosHashTable.fits(x, y)) {
+            return false;
+        }
+        int i = table.find(PosHashTable.pack(x, y));
+        if (i < 0) {
+            return false;
+        }
+        table.removeSlot(i);
+        return true;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Pos> filter) {
+        // The matching keys are collected first, because removal shifts the entries
+        long[] removed = new long[size()];
+        int count = 0;
+        for (int i = table.nextSlot(0); i >= 0; i = table.nextSlot(i + 1)) {
+            if (filter.test(PosHashTable.unpack(table.keys[i]))) {
+                removed[count++] = table.keys[i];
+            }
+        }
+        for (int k = 0; k < count; k++) {
+            table.removeSlot(table.find(removed[k]));
+        }
+        return count > 0;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return removeIf(p -> !c.contains(p));
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    @Override
+    public Iterator<Pos> iterator() {
+        return new Iterator<>() {
+
+            int next = table.nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Pos next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                var pos = PosHashTable.unpack(table.keys[next]);
+                next = table.nextSlot(next + 1);
+                return pos;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,248 @@
+package com.github.pkovacs.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents the <a href="https://en.wikipedia.org/wiki/Strongly_connected_component">strongly connected
+ * components</a> of a directed graph, as calculated by
+ * <a href="https://en.wikipedia.org/wiki/Tarjan%27s_strongly_connected_components_algorithm">Tarjan's
+ * algorithm</a>.
+ * <p>
+ * The algorithm runs on a {@link CompiledGraph} and uses explicit stacks instead of recursion, so the depth of the
+ * graph is not limited by the stack size. The components are numbered by dense {@code int} ids
+ * ({@code 0, 1, ..., k-1}) in topological order: each edge between different components goes from a component with
+ * smaller id to a component with larger id.
+ * <p>
+ * The {@linkplain #condensation() condensation} of the graph (which is always acyclic) can be used to run DAG-only
+ * algorithms on graphs with cycles, e.g., with {@link Dag}.
+ *
+ * @param <T> the type of nodes
+ * @see Dag
+ */
+public final class Scc<T> {
+
+    private final CompiledGraph<T> graph;
+    private final int[] component; // component id of each node
+    private final int[] offsets; // the nodes of component c are members[offsets[c]..offsets[c+1]-1]
+    private final int[] members;
+
+    private CompiledGraph<Integer> condensation;
+
+    private Scc(CompiledGraph<T> graph, int[] component, int count) {
+        this.graph = graph;
+        this.component = component;
+
+        offsets = new int[count + 1];
+        for (int c : component) {
+            offsets[c + 1]++;
+        }
+        Arrays.parallelPrefix(offsets, Integer::sum);
+        members = new int[component.length];
+        int[] next = Arrays.copyOf(offsets, count);
+        for (int u = 0; u < component.length; u++) {
+            members[next[component[u]]++] = u;
+        }
+    }
+
+    /**
+     * Finds the strongly connected components of the part of the given graph that is reachable from the given source
+     * node. The graph is {@linkplain Graph#compile(Object) compiled} first.
+     */
+    public static <T> Scc<T> find(Graph<T> graph, T source) {
+        return findFromAny(graph, Stream.of(source));
+    }
+
+    /**
+     * Finds the strongly connected components of the part of the given graph that is reachable from any of the given
+     * source nodes. The graph is {@linkplain Graph#compileFromAny(Stream) compiled} first.
+     */
+    public static <T> Scc<T> findFromAny(Graph<T> graph, Stream<? extends T> sources) {
+        return find(graph.compileFromAny(sources));
+    }
+
+    /**
+     * Finds the strongly connected components of the given compiled graph.
+     */
+    public static <T> Scc<T> find(CompiledGraph<T> graph) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        int[] order = new int[n]; // DFS discovery order + 1 or 0 for unvisited nodes
+        int[] low = new int[n];
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+
+        int[] stack = new int[n]; // Tarjan's stack of the visited nodes not assigned to a component yet
+        int stackSize = 0;
+        int[] callStack = new int[n]; // the nodes of the current DFS path (instead of recursion)
+        int[] edge = new int[n]; // the next outgoing edge to be processed for each node on the DFS path
+        int callStackSize = 0;
+        int time = 0;
+        int count = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] != 0) {
+                continue;
+            }
+            order[root] = low[root] = ++time;
+            stack[stackSize++] = root;
+            callStack[callStackSize++] = root;
+            edge[root] = offsets[root];
+
+            while (callStackSize > 0) {
+                int u = callStack[callStackSize - 1];
+                if (edge[u] < offsets[u + 1]) {
+                    int v = targets[edge[u]++];
+                    if (order[v] == 0) {
+                        order[v] = low[v] = ++time;
+                        stack[stackSize++] = v;
+                        callStack[callStackSize++] = v;
+                        edge[v] = offsets[v];
+                    } else if (component[v] < 0) {
+                        low[u] = Math.min(low[u], order[v]);
+                    }
+                    continue;
+                }
+
+                // All edges of u are processed: "return" to its parent
+                callStackSize--;
+                if (callStackSize > 0) {
+                    int parent = callStack[callStackSize - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+                if (low[u] == order[u]) {
+                    int v;
+                    do {
+                        v = stack[--stackSize];
+                        component[v] = count;
+                    } while (v != u);
+                    count++;
+                }
+            }
+        }
+
+        // Tarjan's algorithm finds the components in reverse topological order
+        for (int u = 0; u < n; u++) {
+            component[u] = count - 1 - component[u];
+        }
+        return new Scc<>(graph, component, count);
+    }
+
+    /**
+     * Returns the compiled graph.
+     */
+    public CompiledGraph<T> graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of strongly connected components.
+     */
+    public int count() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns true if the graph is acyclic. That is, each component consists of a single node, and there are no
+     * loop edges.
+     */
+    public boolean isAcyclic() {
+        return count() == graph.size()
+                && IntStream.range(0, graph.size()).noneMatch(u -> graph.neighbors(u).anyMatch(v -> v == u));
+    }
+
+    /**
+     * Returns the id of the component that contains the given node.
+     *
+     * @throws IllegalArgumentException if the graph does not contain the given node
+     */
+    public int component(T node) {
+        return component[graph.indexOf(node)];
+    }
+
+    /**
+     * Returns the id of the component that contains the node with the given id in the {@linkplain #graph() compiled
+     * graph}.
+     *
+     * @throws IndexOutOfBoundsException if the id is out of range
+     */
+    public int componentOf(int id) {
+        return component[Objects.checkIndex(id, component.length)];
+    }
+
+    /**
+     * Returns the number of nodes in the given component.
+     */
+    public int size(int component) {
+        return offsets[component + 1] - offsets[component];
+    }
+
+    /**
+     * Returns the nodes of the given component.
+     */
+    public List<T> nodes(int component) {
+        return Arrays.stream(members, offsets[component], offsets[component + 1]).mapToObj(graph::node).toList();
+    }
+
+    /**
+     * Returns the list of the components (in the order of their ids).
+     */
+    public List<List<T>> components() {
+        var list = new ArrayList<List<T>>(count());
+        for (int c = 0; c < count(); c++) {
+            list.add(nodes(c));
+        }
+        return list;
+    }
+
+    /**
+     * Returns the condensation of the graph: a directed acyclic graph whose nodes are the component ids, and there is
+     * an edge from {@code c1} to {@code c2} if and only if {@code c1 != c2} and there is an edge from a node of
+     * {@code c1} to a node of {@code c2}. The weight of each edge is 1. Component {@code c} is assigned id {@code c}
+     * in the compiled graph as well. The returned graph is constructed on demand and cached.
+     */
+    public CompiledGraph<Integer> condensation() {
+        if (condensation == null) {
+            // Lazy load: collect the distinct edges of each component
+            int k = count();
+            var index = new NodeIndex<Integer>();
+            IntStream.range(0, k).forEach(index::getOrAdd);
+
+            int[] graphOffsets = graph.offsets();
+            int[] graphTargets = graph.targets();
+            int[] cOffsets = new int[k + 1];
+            int[] cTargets = new int[16];
+            int[] seen = new int[k]; // component id + 1 of the last component having an edge to each component
+            int edgeCount = 0;
+            for (int c = 0; c < k; c++) {
+                cOffsets[c] = edgeCount;
+                for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                    int u = members[i];
+                    for (int e = graphOffsets[u]; e < graphOffsets[u + 1]; e++) {
+                        int d = component[graphTargets[e]];
+                        if (d != c && seen[d] != c + 1) {
+                            seen[d] = c + 1;
+                            if (edgeCount == cTargets.length) {
+                                cTargets = Arrays.copyOf(cTargets, 2 * edgeCount);
+                            }
+                            cTargets[edgeCount++] = d;
+                        }
+                    }
+                }
+            }
+            cOffsets[k] = edgeCount;
+
+            long[] weights = new long[edgeCount];
+            Arrays.fill(weights, 1);
+            condensation = new CompiledGraph<>(index, cOffsets, Arrays.copyOf(cTargets, edgeCount), weights);
+        }
+        return condensation;
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.github.pkovacs.util;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Limits the execution of search algorithms: the maximum number of expanded nodes, a timeout, and a cancellation
+ * flag. It can be passed to the {@code *Bounded} methods of {@link Bfs}, {@link Dijkstra}, {@link AStar}, and
+ * {@link BellmanFord}, and to the corresponding methods of {@link Backtracking}, which stop as soon as the budget is
+ * exhausted or the search is {@linkplain #cancel() cancelled} and return the partial result found so far as
+ * a {@link SearchResult}.
+ * <p>
+ * The limits apply to each execution separately: the node counter and the timer are started when a search starts.
+ * The cancellation flag is checked at each expanded node, but the timer is only checked at every 256th
+ * node to keep the overhead low. A budget can be shared between multiple searches (running on any threads), and
+ * {@link #cancel()} can be called from any thread to stop all of them.
+ * <p>
+ * The {@code *Bounded} graph search methods also take a {@link SearchStats} argument (or {@code null}), so the
+ * statistics of a bounded search can be collected the same way as for the other search methods.
+ */
+public final class SearchBudget {
+
+    /** The number of expanded nodes between two checks of the timer. */
+    private static final int TIME_CHECK = 256;
+
+    private long maxNodes = Long.MAX_VALUE;
+    private Duration timeout;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a new unlimited budget. The limits can be set by {@link #setMaxNodes(long)} and
+     * {@link #setTimeout(Duration)}.
+     */
+    public SearchBudget() {
+    }
+
+    /**
+     * Creates a new budget with the given maximum number of expanded nodes.
+     */
+    public static SearchBudget ofNodes(long maxNodes) {
+        return new SearchBudget().setMaxNodes(maxNodes);
+    }
+
+    /**
+     * Creates a new budget with the given timeout.
+     */
+    public static SearchBudget ofTime(Duration timeout) {
+        return new SearchBudget().setTimeout(timeout);
+    }
+
+    /**
+     * Returns the maximum number of expanded nodes ({@link Long#MAX_VALUE} by default).
+     */
+    public long maxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Sets the maximum number of expanded nodes.
+     *
+     * @return this budget
+     * @throws IllegalArgumentException if the given value is negative
+     */
+    public SearchBudget setMaxNodes(long maxNodes) {
+        if (maxNodes < 0) {
+            throw new IllegalArgumentException("Negative node limit: " + maxNodes + ".");
+        }
+        this.maxNodes = maxNodes;
+        return this;
+    }
+
+    /**
+     * Returns the timeout or an empty optional if the time is not limited (default).
+     */
+    public Optional<Duration> timeout() {
+        return Optional.ofNullable(timeout);
+    }
+
+    /**
+     * Sets the timeout.
+     *
+     * @return this budget
+     * @throws IllegalArgumentException if the given duration is negative
+     */
+    public SearchBudget setTimeout(Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("Negative timeout: " + timeout + ".");
+        }
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Cancels all current and future searches using this budget.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns true if this budget is cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Starts a new execution with this budget.
+     */
+    Tracker start() {
+        return new Tracker(null);
+    }
+
+    /**
+     * Starts a new execution with this budget that also updates the given statistics (if not {@code null}).
+     */
+    Tracker start(SearchStats stats) {
+        return new Tracker(stats);
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Tracks a single execution with a {@link SearchBudget}.
+     */
+    final class Tracker {
+
+        private final long start = System.nanoTime();
+        private final SearchStats stats;
+        private final long maxNanos = timeout == null ? Long.MAX_VALUE : saturatedNanos(timeout);
+        private long expandedNodes;
+        private SearchResult.Status status = SearchResult.Status.COMPLETED;
+
+        private Tracker(SearchStats stats) {
+            this.stats = stats;
+        }
+
+        /**
+         * Registers the expansion of a node.
+         *
+         * @return true if the node can be expanded, false if the search has to be stopped
+         */
+        boolean expand() {
+            if (cancelled) {
+                status = SearchResult.Status.CANCELLED;
+            } else if (expandedNodes == maxNodes) {
+                status = SearchResult.Status.NODE_LIMIT_REACHED;
+            } else if (expandedNodes % TIME_CHECK == 0 && System.nanoTime() - start >= maxNanos) {
+                status = SearchResult.Status.TIMEOUT;
+            } else {
+                expandedNodes++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns the {@link SearchStats} to be updated by the search or {@code null}.
+         */
+        SearchStats stats() {
+            return stats;
+        }
+
+        /**
+         * Finishes the execution: records the elapsed time in the statistics (if any) and wraps the given value.
+         */
+        <R> SearchResult<R> result(R value) {
+            if (stats != null) {
+                stats.addElapsed(start);
+            }
+            return new SearchResult<>(value, status, expandedNodes);
+        }
+
+    }
+
+}
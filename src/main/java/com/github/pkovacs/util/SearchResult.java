@@ -0,0 +1,35 @@
+package com.github.pkovacs.util;
+
+/**
+ * Represents the result of a search algorithm executed with a {@link SearchBudget}. If the search is stopped before
+ * completion, then the value is the partial result found so far (as specified by the corresponding method).
+ *
+ * @param value the (partial) result of the search.
+ * @param status the status of the search.
+ * @param expandedNodes the number of nodes expanded by the search.
+ * @param <R> the type of the result
+ */
+public record SearchResult<R>(R value, Status status, long expandedNodes) {
+
+    /**
+     * Returns true if the search is completed, so {@link #value()} is the complete result.
+     */
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    /**
+     * The status of a search executed with a {@link SearchBudget}.
+     */
+    public enum Status {
+        /** The search is completed. */
+        COMPLETED,
+        /** The search is stopped because the maximum number of expanded nodes is reached. */
+        NODE_LIMIT_REACHED,
+        /** The search is stopped because of timeout. */
+        TIMEOUT,
+        /** The search is cancelled. */
+        CANCELLED
+    }
+
+}
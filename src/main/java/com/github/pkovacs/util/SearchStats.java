@@ -0,0 +1,105 @@
+package com.github.pkovacs.util;
+
+import java.time.Duration;
+
+/**
+ * Collects statistics about the execution of search algorithms: the number of expanded nodes, scanned edges, and
+ * stale queue entries, the peak size of the queue, and the elapsed time. It can be passed to the corresponding
+ * methods of {@link Bfs}, {@link Dijkstra}, {@link AStar}, and {@link BellmanFord} to find out why a search is slow,
+ * e.g., to tune heuristics or to spot pathological inputs. It can also be combined with a {@link SearchBudget}.
+ * <p>
+ * The statistics are accumulated if the same instance is passed to multiple executions (the peak queue size is the
+ * maximum of the peaks). Passing {@code null} instead of an instance disables the collection of statistics.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class SearchStats {
+
+    private long expandedNodes;
+    private long scannedEdges;
+    private long stalePops;
+    private long peakQueueSize;
+    private long elapsedNanos;
+
+    /**
+     * Creates a new instance with all statistics set to zero.
+     */
+    public SearchStats() {
+    }
+
+    /**
+     * Returns the number of nodes expanded (removed from the queue and processed) by the algorithm. For
+     * {@link BellmanFord}, a node can be expanded multiple times.
+     */
+    public long expandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * Returns the number of edges scanned (relaxed) by the algorithm.
+     */
+    public long scannedEdges() {
+        return scannedEdges;
+    }
+
+    /**
+     * Returns the number of outdated entries removed from the queue and skipped by the algorithm. This is only
+     * relevant for the algorithms that do not update the queue when a shorter path is found to a node (e.g., the
+     * bucket queue version of {@link Dijkstra}).
+     */
+    public long stalePops() {
+        return stalePops;
+    }
+
+    /**
+     * Returns the maximum number of entries in the queue.
+     */
+    public long peakQueueSize() {
+        return peakQueueSize;
+    }
+
+    /**
+     * Returns the total elapsed time.
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Resets all statistics to zero.
+     */
+    public void reset() {
+        expandedNodes = 0;
+        scannedEdges = 0;
+        stalePops = 0;
+        peakQueueSize = 0;
+        elapsedNanos = 0;
+    }
+
+    void nodeExpanded() {
+        expandedNodes++;
+    }
+
+    void edgeScanned() {
+        scannedEdges++;
+    }
+
+    void stalePop() {
+        stalePops++;
+    }
+
+    void queueSize(long size) {
+        peakQueueSize = Math.max(peakQueueSize, size);
+    }
+
+    void addElapsed(long startNanos) {
+        elapsedNanos += System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SearchStats[expandedNodes=%d, scannedEdges=%d, stalePops=%d, peakQueueSize=%d, "
+                + "elapsed=%s]", expandedNodes, scannedEdges, stalePops, peakQueueSize, elapsed());
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.github.pkovacs.util;
+
+import java.util.Arrays;
+
+/**
+ * A <a href="https://en.wikipedia.org/wiki/Disjoint-set_data_structure">disjoint-set forest</a> (union-find data
+ * structure) of the elements {@code 0, 1, ..., n-1}. Initially, each element forms a separate component (set).
+ * <p>
+ * The forest is stored in {@code int} arrays. {@link #find} uses path halving, and {@link #union} links the root of
+ * the smaller component under the root of the larger one (union by size), so the amortized time complexity of these
+ * operations is nearly constant. The size of each component and the number of components of each size (the size
+ * histogram) are maintained incrementally, so they can be queried in constant time.
+ * <p>
+ * This class is not thread-safe. See {@link ConcurrentUnionFind} for a lock-free variant.
+ *
+ * @see ConcurrentUnionFind
+ */
+public final class UnionFind {
+
+    private final int[] parent;
+    private final int[] size; // the size of each component (only valid for the roots)
+    private final int[] histogram; // the number of components of each size
+    private int componentCount;
+
+    /**
+     * Creates a new union-find data structure of the elements {@code 0, 1, ..., n-1}, each of which forms
+     * a separate component.
+     *
+     * @throws IllegalArgumentException if {@code n} is negative
+     */
+    public UnionFind(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Negative number of elements: " + n + ".");
+        }
+
+        parent = new int[n];
+        size = new int[n];
+        histogram = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        if (n > 0) {
+            histogram[1] = n;
+        }
+        componentCount = n;
+    }
+
+    /**
+     * Returns the number of elements.
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Returns the number of components.
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Returns the representative element (root) of the component that contains the given element.
+     */
+    public int find(int i) {
+        while (parent[i] != i) {
+            // Path halving: make every other node on the path point to its grandparent
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Merges the components that contain the given elements.
+     *
+     * @return true if the elements were contained in different components
+     */
+    public boolean union(int i, int j) {
+        int a = find(i);
+        int b = find(j);
+        if (a == b) {
+            return false;
+        }
+
+        if (size[a] < size[b]) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+        histogram[size[a]]--;
+        histogram[size[b]]--;
+        parent[b] = a;
+        size[a] += size[b];
+        histogram[size[a]]++;
+        componentCount--;
+        return true;
+    }
+
+    /**
+     * Returns true if the given elements are contained in the same component.
+     */
+    public boolean connected(int i, int j) {
+        return find(i) == find(j);
+    }
+
+    /**
+     * Returns the size of the component that contains the given element.
+     */
+    public int componentSize(int i) {
+        return size[find(i)];
+    }
+
+    /**
+     * Returns the number of components of the given size.
+     */
+    public int componentCountOfSize(int s) {
+        return s >= 0 && s < histogram.length ? histogram[s] : 0;
+    }
+
+    /**
+     * Returns the size histogram of the components: an array of length {@code n + 1}, whose {@code s}-th element
+     * is the number of components of size {@code s}.
+     */
+    public int[] sizeHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Returns the sizes of all components in descending order. They are collected from the size histogram in
+     * {@code O(n)} time.
+     */
+    public int[] componentSizes() {
+        int[] sizes = new int[componentCount];
+        for (int s = histogram.length - 1, k = 0; s > 0; s--) {
+            Arrays.fill(sizes, k, k + histogram[s], s);
+            k += histogram[s];
+        }
+        return sizes;
+    }
+
+}
@@ -201,6 +201,35 @@ public final class Vector implements Comparable<Vector> {
         );
     }
 
+    /**
+     * Performs the given action for each of the 6 main neighbors of this vector in lexicographical order.
+     * This method is equivalent to {@code neighbors().forEach(...)}, but it does not create any objects.
+     */
+    public void forEachNeighbor(CoordConsumer action) {
+        action.accept(x - 1, y, z);
+        action.accept(x, y - 1, z);
+        action.accept(x, y, z - 1);
+        action.accept(x, y, z + 1);
+        action.accept(x, y + 1, z);
+        action.accept(x + 1, y, z);
+    }
+
+    /**
+     * Performs the given action for each of the 26 "extended" neighbors of this vector in lexicographical order.
+     * This method is equivalent to {@code extendedNeighbors().forEach(...)}, but it does not create any objects.
+     */
+    public void forEachExtendedNeighbor(CoordConsumer action) {
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                for (long dz = -1; dz <= 1; dz++) {
+                    if (dx != 0 || dy != 0 || dz != 0) {
+                        action.accept(x + dx, y + dy, z + dz);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Creates a new vector by adding the given delta values to the coordinates of this vector.
      */
@@ -330,4 +359,14 @@ public final class Vector implements Comparable<Vector> {
         return cy != 0 ? cy : Long.compare(z, other.z);
     }
 
+    /**
+     * An action to be performed for the coordinates of a vector.
+     */
+    @FunctionalInterface
+    public interface CoordConsumer {
+
+        void accept(long x, long y, long z);
+
+    }
+
 }
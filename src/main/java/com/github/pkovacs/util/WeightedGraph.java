@@ -2,8 +2,10 @@ package com.github.pkovacs.util;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Predicate;
 import java.util.function.ToLongBiFunction;
 import java.util.stream.Stream;
@@ -44,6 +46,18 @@ public interface WeightedGraph<T> {
      */
     Stream<Edge<T>> edges(T node);
 
+    /**
+     * Performs the given action for the end node and the weight of each outgoing edge of the given node in the same
+     * order as {@link #edges}.
+     * <p>
+     * The default implementation simply consumes the stream returned by {@link #edges}, but the graphs created
+     * by the factory methods and combinators of this interface override it to avoid constructing stream pipelines
+     * and {@link Edge} objects, which is significant for nodes with few edges. The search algorithms use this method.
+     */
+    default void forEachEdge(T node, ObjLongConsumer<? super T> action) {
+        edges(node).forEach(edge -> action.accept(edge.end(), edge.weight()));
+    }
+
     /**
      * Wraps the given edge provider function as a weighted graph.
      * <p>
@@ -59,14 +73,16 @@ public interface WeightedGraph<T> {
      * graph are reflected in the returned weighted graph.
      */
     static <T> WeightedGraph<T> of(Graph<T> graph, ToLongBiFunction<? super T, ? super T> weight) {
-        return u -> graph.neighbors(u).map(v -> new Edge<>(v, weight.applyAsLong(u, v)));
+        return withEdgeIterator(u -> graph.neighbors(u).map(v -> new Edge<>(v, weight.applyAsLong(u, v))),
+                (u, action) -> graph.forEachNeighbor(u, v -> action.accept(v, weight.applyAsLong(u, v))));
     }
 
     /**
      * Wraps the given map as a weighted graph. Changes in the map are reflected in the returned weighted graph.
      */
     static <T> WeightedGraph<T> of(Map<? super T, ? extends Collection<Edge<T>>> map) {
-        return u -> map.get(u).stream();
+        return withEdgeIterator(u -> map.get(u).stream(),
+                (u, action) -> map.get(u).forEach(edge -> action.accept(edge.end(), edge.weight())));
     }
 
     /**
@@ -75,21 +91,67 @@ public interface WeightedGraph<T> {
      */
     static <T> WeightedGraph<T> of(Map<? super T, ? extends Collection<T>> map,
             ToLongBiFunction<? super T, ? super T> weight) {
-        return u -> map.get(u).stream().map(v -> new Edge<>(v, weight.applyAsLong(u, v)));
+        return of(Graph.of(map), weight);
+    }
+
+    /**
+     * Creates a weighted graph from the given edge provider function and the given function that performs an action
+     * for each outgoing edge of a node. The two functions must be consistent: they must provide the same edges in the
+     * same order. The latter one is used to implement {@link #forEachEdge}.
+     */
+    private static <T> WeightedGraph<T> withEdgeIterator(
+            Function<? super T, ? extends Stream<Edge<T>>> edgeProvider,
+            BiConsumer<? super T, ObjLongConsumer<? super T>> edgeIterator) {
+        return new WeightedGraph<>() {
+            @Override
+            public Stream<Edge<T>> edges(T node) {
+                return edgeProvider.apply(node);
+            }
+
+            @Override
+            public void forEachEdge(T node, ObjLongConsumer<? super T> action) {
+                edgeIterator.accept(node, action);
+            }
+        };
     }
 
     /**
      * Restricts this graph to only contain the nodes that satisfy the given predicate.
      */
     default WeightedGraph<T> filterNodes(Predicate<? super T> nodeFilter) {
-        return u -> edges(u).filter(edge -> nodeFilter.test(edge.end()));
+        return withEdgeIterator(u -> edges(u).filter(edge -> nodeFilter.test(edge.end())),
+                (u, action) -> forEachEdge(u, (v, w) -> {
+                    if (nodeFilter.test(v)) {
+                        action.accept(v, w);
+                    }
+                }));
     }
 
     /**
      * Restricts this graph to only contain the edges between pairs of nodes that satisfy the given predicate.
      */
     default WeightedGraph<T> filterEdges(BiPredicate<? super T, ? super T> edgeFilter) {
-        return u -> edges(u).filter(edge -> edgeFilter.test(u, edge.end()));
+        return withEdgeIterator(u -> edges(u).filter(edge -> edgeFilter.test(u, edge.end())),
+                (u, action) -> forEachEdge(u, (v, w) -> {
+                    if (edgeFilter.test(u, v)) {
+                        action.accept(v, w);
+                    }
+                }));
+    }
+
+    /**
+     * Compiles the part of this graph that is reachable from the given source node into a {@link CompiledGraph}.
+     */
+    default CompiledGraph<T> compile(T source) {
+        return compileFromAny(Stream.of(source));
+    }
+
+    /**
+     * Compiles the part of this graph that is reachable from any of the given source nodes into a
+     * {@link CompiledGraph}.
+     */
+    default CompiledGraph<T> compileFromAny(Stream<? extends T> sources) {
+        return CompiledGraph.of(this, sources);
     }
 
 }
@@ -0,0 +1,140 @@
+package com.github.pkovacs.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Implements <a href="https://en.wikipedia.org/wiki/Yen%27s_algorithm">Yen's algorithm</a> for finding the
+ * {@code k} shortest <i>loopless</i> paths (in terms of the total edge weight) between two nodes of a weighted graph.
+ * This algorithm only supports non-negative edge weights. The paths are distinguished by their sequences of nodes, so
+ * in the case of parallel edges, only the lightest one is used.
+ * <p>
+ * The first path is found by {@link Dijkstra}. Each further path deviates from one of the previous paths at a
+ * <i>spur node</i>: it consists of a <i>root path</i> (a prefix of a previous path) and a <i>spur path</i> (found
+ * by {@link Dijkstra} in the subgraph that excludes the nodes of the root path and the edges used by previous paths
+ * with the same root). The following optimizations are applied.
+ * <ul>
+ * <li>
+ *     The spur nodes of each path are only considered from the position where it deviates from its parent path
+ *     (Lawler's modification), because the spur paths at the previous positions have already been examined.
+ * </li>
+ * <li>
+ *     The {@link Path} objects of the root paths are shared between the paths, only the spur paths are constructed.
+ * </li>
+ * <li>
+ *     At most {@code k - i} candidates are kept when {@code i} paths have already been found, because the other
+ *     candidates can never be selected.
+ * </li>
+ * </ul>
+ *
+ * @see Dijkstra
+ */
+public final class Yen {
+
+    private Yen() {
+    }
+
+    /**
+     * Finds the {@code k} shortest loopless paths (in terms of the total edge weight) from the given source node to
+     * the given target node.
+     *
+     * @param graph the {@link WeightedGraph} that provides the outgoing weighted edges for each node.
+     * @param source the source node.
+     * @param target the target node.
+     * @param k the maximum number of paths to be found.
+     * @return the list of the {@code k} shortest loopless paths (or all loopless paths if there are fewer) in
+     *         increasing order of their total weight.
+     */
+    public static <T> List<Path<T>> findPaths(WeightedGraph<T> graph, T source, T target, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of paths: " + k + ".");
+        }
+
+        var results = new ArrayList<Path<T>>();
+        var first = Dijkstra.findPath(graph, source, target::equals);
+        if (k == 0 || first.isEmpty()) {
+            return results;
+        }
+
+        var candidates = new TreeSet<>(Comparator.<Candidate<T>>comparingLong(c -> c.path.dist())
+                .thenComparingLong(c -> c.seq));
+        var candidateNodes = new HashSet<List<T>>();
+        long seq = 0;
+        var next = new Candidate<>(first.get(), 0, seq++);
+        while (true) {
+            results.add(next.path);
+            if (results.size() == k) {
+                break;
+            }
+
+            // Generate the candidates deviating from the last path at each spur node
+            var chain = toArray(next.path);
+            var nodes = next.path.nodes();
+            for (int i = next.deviation; i < chain.length - 1; i++) {
+                var root = chain[i];
+                var spurNode = root.end();
+                var rootNodes = nodes.subList(0, i + 1);
+                var excludedNodes = new HashSet<>(rootNodes.subList(0, i));
+                var excludedNext = new HashSet<T>();
+                for (var path : results) {
+                    var pathNodes = path.nodes();
+                    if (pathNodes.size() > i + 1 && pathNodes.subList(0, i + 1).equals(rootNodes)) {
+                        excludedNext.add(pathNodes.get(i + 1));
+                    }
+                }
+
+                var subgraph = graph.filterEdges((u, v) -> !excludedNodes.contains(v)
+                        && !(u.equals(spurNode) && excludedNext.contains(v)));
+                var spurPath = Dijkstra.findPath(subgraph, spurNode, target::equals);
+                if (spurPath.isEmpty()) {
+                    continue;
+                }
+
+                var path = join(root, spurPath.get());
+                if (candidateNodes.add(path.nodes())) {
+                    candidates.add(new Candidate<>(path, i, seq++));
+                    while (candidates.size() > k - results.size()) {
+                        candidates.pollLast();
+                    }
+                }
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            next = candidates.pollFirst();
+        }
+
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Path<T>[] toArray(Path<T> path) {
+        var list = new ArrayList<Path<T>>();
+        for (var p = path; p != null; p = p.prev()) {
+            list.add(p);
+        }
+        return list.reversed().toArray(Path[]::new);
+    }
+
+    /**
+     * Appends the given spur path (without its first node) to the given root path.
+     */
+    private static <T> Path<T> join(Path<T> root, Path<T> spurPath) {
+        var spurChain = toArray(spurPath);
+        var path = root;
+        for (int i = 1; i < spurChain.length; i++) {
+            path = new Path<>(spurChain[i].end(), root.dist() + spurChain[i].dist(), path);
+        }
+        return path;
+    }
+
+    /**
+     * A candidate path, the index of its spur node, and a sequence number for breaking ties.
+     */
+    private record Candidate<T>(Path<T> path, int deviation, long seq) {}
+
+}